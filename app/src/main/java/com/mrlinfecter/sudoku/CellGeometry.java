@@ -0,0 +1,55 @@
+package com.mrlinfecter.sudoku;
+
+/**
+ * Position des 9 lignes / colonnes de la grille, calculée une fois par taille de vue.
+ * Sert à la fois au dessin et au hit-test, donc une case touchée est exactement celle dessinée.
+ * Les bordures (épaisses entre les blocs, fines sinon) sont partagées en leur milieu
+ * entre les deux cases voisines.
+ */
+final class CellGeometry {
+    static final int SIZE = 9;
+
+    final int cellSize;
+    final int[] start = new int[SIZE]; // premier pixel de chaque case (identique en x et y)
+    // bounds[i] : frontière entre la case i et la case i + 1
+    private final float[] bounds = new float[SIZE - 1];
+
+    CellGeometry(int size, int thin, int thick) {
+        int totalGaps = 4 * thick + 6 * thin;
+        cellSize = Math.max(0, (size - totalGaps) / SIZE);
+
+        int pos = 0;
+        for (int i = 0; i < SIZE; i++) {
+            pos += (i % 3 == 0) ? thick : thin;
+            start[i] = pos;
+            pos += cellSize;
+        }
+        for (int i = 0; i < SIZE - 1; i++) {
+            int end = start[i] + cellSize;
+            bounds[i] = (end + start[i + 1]) / 2f;
+        }
+    }
+
+    // Ligne ou colonne sous la coordonnée (recherche dichotomique sur 8 frontières : 4 comparaisons au plus)
+    int indexAt(float pos) {
+        int lo = 0, hi = SIZE - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (pos < bounds[mid]) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    int cellAt(float x, float y) {
+        return indexAt(y) * SIZE + indexAt(x);
+    }
+
+    int left(int index) {
+        return start[index % SIZE];
+    }
+
+    int top(int index) {
+        return start[index / SIZE];
+    }
+}
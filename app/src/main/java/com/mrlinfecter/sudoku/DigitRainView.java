@@ -0,0 +1,191 @@
+package com.mrlinfecter.sudoku;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import java.util.Random;
+
+/**
+ * Pluie de chiffres du fond de l'accueil, et sa variante "qui se casse" (easter egg).
+ * Une seule vue dessine toutes les particules, recyclées dans des tableaux fixes ;
+ * les Paint sont créés une fois par taille de texte. Le coût CPU et mémoire est
+ * le même quel que soit le temps passé sur l'écran.
+ */
+public class DigitRainView extends View {
+    public static final int MODE_RAIN = 0;     // un chiffre toutes les 150 ms, chute jusqu'en bas
+    public static final int MODE_BREAKING = 1; // un chiffre toutes les 250 ms, se casse en fragments
+
+    private static final int MAX_PARTICLES = 256;
+    private static final int MIN_SP = 10, MAX_SP = 29; // tailles possibles (fragments 10-15, chiffres 18-29)
+
+    private static final int KIND_FREE = 0, KIND_RAIN = 1, KIND_BREAKING = 2, KIND_FRAGMENT = 3;
+
+    private final int[] kind = new int[MAX_PARTICLES];
+    private final float[] startX = new float[MAX_PARTICLES];
+    private final float[] startY = new float[MAX_PARTICLES];
+    private final float[] endX = new float[MAX_PARTICLES];
+    private final float[] endY = new float[MAX_PARTICLES];
+    private final long[] startTime = new long[MAX_PARTICLES];
+    private final int[] duration = new int[MAX_PARTICLES];
+    private final int[] sizeSp = new int[MAX_PARTICLES];
+    private final float[] alpha = new float[MAX_PARTICLES];
+    private final char[] digit = new char[MAX_PARTICLES];
+    private int freeHint = 0;
+
+    // [0] = normal, [1] = gras ; index = taille en sp - MIN_SP
+    private final Paint[][] paints = new Paint[2][MAX_SP - MIN_SP + 1];
+    private final Random random = new Random();
+    private int color;
+    private int mode = MODE_RAIN;
+    private boolean running = false;
+    private long nextSpawn;
+
+    public DigitRainView(Context context) {
+        super(context);
+        init();
+    }
+
+    public DigitRainView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    private void init() {
+        float spToPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 1f, getResources().getDisplayMetrics());
+        for (int bold = 0; bold < 2; bold++) {
+            for (int sp = MIN_SP; sp <= MAX_SP; sp++) {
+                Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                paint.setTextSize(sp * spToPx);
+                if (bold == 1) paint.setTypeface(Typeface.DEFAULT_BOLD);
+                paints[bold][sp - MIN_SP] = paint;
+            }
+        }
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+        for (Paint[] row : paints) {
+            for (Paint paint : row) paint.setColor(color);
+        }
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    // Les chiffres déjà en vol finissent leur course, seules les nouvelles apparitions changent
+    public void setMode(int mode) {
+        this.mode = mode;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        nextSpawn = AnimationUtils.currentAnimationTimeMillis();
+        postInvalidateOnAnimation();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        if (running && now >= nextSpawn) {
+            if (mode == MODE_RAIN) spawnRain(now);
+            else spawnBreaking(now);
+            nextSpawn = now + (mode == MODE_RAIN ? 150 : 250);
+        }
+
+        boolean alive = false;
+        for (int i = 0; i < MAX_PARTICLES; i++) {
+            if (kind[i] == KIND_FREE) continue;
+            float t = (now - startTime[i]) / (float) duration[i];
+            if (t >= 1f) {
+                // Le chiffre atteint son point de casse : il laisse place à ses fragments
+                if (kind[i] == KIND_BREAKING) spawnFragments(now, endX[i], endY[i], digit[i]);
+                kind[i] = KIND_FREE;
+                continue;
+            }
+            alive = true;
+            // Courbe de l'animator par défaut (accélère puis ralentit)
+            float f = (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+            float x = startX[i] + (endX[i] - startX[i]) * f;
+            float y = startY[i] + (endY[i] - startY[i]) * f;
+            float a = kind[i] == KIND_FRAGMENT ? alpha[i] * (1f - f) : alpha[i]; // les fragments s'effacent
+
+            Paint paint = paints[kind[i] == KIND_RAIN ? 0 : 1][sizeSp[i] - MIN_SP];
+            paint.setAlpha((int) (a * 255));
+            canvas.drawText(digit, i, 1, x, y - paint.ascent(), paint);
+        }
+
+        if (running || alive) postInvalidateOnAnimation();
+    }
+
+    private void spawnRain(long now) {
+        int i = obtain();
+        if (i < 0 || getWidth() == 0) return;
+        kind[i] = KIND_RAIN;
+        startX[i] = endX[i] = random.nextFloat() * getWidth();
+        startY[i] = -50f; // juste au-dessus de l'écran
+        endY[i] = getHeight() + 50f;
+        startTime[i] = now;
+        duration[i] = 4000 + random.nextInt(3000);
+        sizeSp[i] = 18 + random.nextInt(12);
+        alpha[i] = 0.1f + random.nextFloat() * 0.3f;
+        digit[i] = (char) ('1' + random.nextInt(9));
+    }
+
+    private void spawnBreaking(long now) {
+        int i = obtain();
+        if (i < 0 || getWidth() == 0) return;
+        kind[i] = KIND_BREAKING;
+        startX[i] = endX[i] = random.nextFloat() * getWidth();
+        startY[i] = -50f;
+        endY[i] = getHeight() * (0.3f + random.nextFloat() * 0.4f); // se casse entre 30 % et 70 % de l'écran
+        startTime[i] = now;
+        duration[i] = 1500 + random.nextInt(1000);
+        sizeSp[i] = 18 + random.nextInt(12);
+        alpha[i] = 0.1f + random.nextFloat() * 0.3f;
+        digit[i] = (char) ('1' + random.nextInt(9));
+    }
+
+    private void spawnFragments(long now, float centerX, float centerY, char value) {
+        int count = 3 + random.nextInt(3);
+        for (int n = 0; n < count; n++) {
+            int i = obtain();
+            if (i < 0) return;
+            double angle = random.nextDouble() * 2 * Math.PI;
+            float distance = 100 + random.nextFloat() * 150;
+            kind[i] = KIND_FRAGMENT;
+            startX[i] = centerX;
+            startY[i] = centerY;
+            endX[i] = centerX + (float) (Math.cos(angle) * distance);
+            endY[i] = centerY + (float) (Math.sin(angle) * distance) + (getHeight() - centerY); // retombent vers le bas
+            startTime[i] = now;
+            duration[i] = 1000 + random.nextInt(800);
+            sizeSp[i] = 10 + random.nextInt(6);
+            alpha[i] = 0.3f + random.nextFloat() * 0.4f;
+            digit[i] = value;
+        }
+    }
+
+    // Index d'une particule libre, -1 si toutes sont en vol
+    private int obtain() {
+        for (int n = 0; n < MAX_PARTICLES; n++) {
+            int i = (freeHint + n) % MAX_PARTICLES;
+            if (kind[i] == KIND_FREE) {
+                freeHint = (i + 1) % MAX_PARTICLES;
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,138 @@
+package com.mrlinfecter.sudoku;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.TypedValue;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import java.util.Random;
+
+/**
+ * Feu d'artifice de chiffres de l'écran de victoire, dessiné dans une seule vue.
+ * Les particules vivent dans des tableaux préalloués (pas de TextView ni d'animator
+ * par chiffre) et sont animées par l'horloge des frames : mémoire constante et
+ * aucune allocation pendant l'animation.
+ * Même effet qu'avant : toutes les 500 ms, 3 à 5 explosions de 20 à 40 chiffres.
+ */
+public class FireworksView extends View {
+    private static final int MAX_PARTICLES = 1024; // 5 explosions x 40 chiffres x 2 s de vie / 500 ms, avec marge
+    private static final long BURST_INTERVAL_MS = 500;
+
+    // Une particule = un index dans ces tableaux
+    private final float[] startX = new float[MAX_PARTICLES];
+    private final float[] startY = new float[MAX_PARTICLES];
+    private final float[] endX = new float[MAX_PARTICLES];
+    private final float[] endY = new float[MAX_PARTICLES];
+    private final long[] startTime = new long[MAX_PARTICLES];
+    private final int[] duration = new int[MAX_PARTICLES]; // 0 = particule libre
+    private final float[] textSize = new float[MAX_PARTICLES];
+    private final int[] alpha = new int[MAX_PARTICLES];
+    private final char[] digit = new char[MAX_PARTICLES];
+    private int freeHint = 0; // où reprendre la recherche d'une particule libre
+
+    private final Random random = new Random();
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float spToPx;
+    private int color;
+    private boolean running = false;
+    private long nextBurst;
+
+    public FireworksView(Context context) {
+        super(context);
+        spToPx = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 1f, getResources().getDisplayMetrics());
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    public void start() {
+        running = true;
+        nextBurst = AnimationUtils.currentAnimationTimeMillis();
+        postInvalidateOnAnimation();
+    }
+
+    // Arrête les explosions ; les chiffres déjà lancés terminent leur course
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        running = false;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        long now = AnimationUtils.currentAnimationTimeMillis();
+        if (running && now >= nextBurst) {
+            burst(now);
+            nextBurst = now + BURST_INTERVAL_MS;
+        }
+
+        boolean alive = false;
+        for (int i = 0; i < MAX_PARTICLES; i++) {
+            if (duration[i] == 0) continue;
+            float t = (now - startTime[i]) / (float) duration[i];
+            if (t >= 1f) {
+                duration[i] = 0;
+                continue;
+            }
+            alive = true;
+            // Même courbe que l'animator par défaut (accélère puis ralentit)
+            float f = (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+            float x = startX[i] + (endX[i] - startX[i]) * f;
+            float y = startY[i] + (endY[i] - startY[i]) * f;
+            paint.setTextSize(textSize[i]);
+            paint.setColor(ThemePalette.withAlpha(color, alpha[i]));
+            canvas.drawText(digit, i, 1, x, y + textSize[i], paint);
+        }
+
+        if (running || alive) postInvalidateOnAnimation();
+    }
+
+    private void burst(long now) {
+        int width = getWidth(), height = getHeight();
+        if (width == 0 || height == 0) return;
+
+        int explosions = 3 + random.nextInt(3);
+        for (int e = 0; e < explosions; e++) {
+            float centerX = random.nextInt(width);
+            float centerY = random.nextInt(height);
+            int count = 20 + random.nextInt(21);
+            for (int k = 0; k < count; k++) {
+                int i = obtain();
+                if (i < 0) return; // pool plein : on saute ce tour plutôt que d'allouer
+
+                double angle = random.nextDouble() * 2 * Math.PI;
+                float distance = 300 + random.nextFloat() * 300;
+                startX[i] = centerX;
+                startY[i] = centerY;
+                endX[i] = centerX + (float) (Math.cos(angle) * distance);
+                endY[i] = centerY + (float) (Math.sin(angle) * distance);
+                startTime[i] = now;
+                duration[i] = 1000 + random.nextInt(1000);
+                textSize[i] = (16 + random.nextFloat() * 24) * spToPx;
+                alpha[i] = 100 + random.nextInt(156);
+                digit[i] = (char) ('1' + random.nextInt(9));
+            }
+        }
+    }
+
+    // Index d'une particule libre, -1 si toutes sont en vol
+    private int obtain() {
+        for (int n = 0; n < MAX_PARTICLES; n++) {
+            int i = (freeHint + n) % MAX_PARTICLES;
+            if (duration[i] == 0) {
+                freeHint = (i + 1) % MAX_PARTICLES;
+                return i;
+            }
+        }
+        return -1;
+    }
+}
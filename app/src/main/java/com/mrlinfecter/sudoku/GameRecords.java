@@ -0,0 +1,40 @@
+package com.mrlinfecter.sudoku;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.mrlinfecter.sudoku.core.Difficulty;
+import com.mrlinfecter.sudoku.core.RecordsStore;
+
+import java.io.File;
+
+/**
+ * Accès au RecordsStore de l'application.
+ * Au premier lancement avec l'historique, les anciens records "bestScore_" / "bestTime_"
+ * de SudokuPrefs sont repris, puis supprimés des préférences une fois le fichier
+ * d'historique écrit sur le disque (un crash entre les deux ne perd rien).
+ */
+final class GameRecords {
+    private GameRecords() {
+    }
+
+    static RecordsStore get(Context context) {
+        RecordsStore store = RecordsStore.getInstance();
+        if (!store.attach(new File(context.getFilesDir(), "records.bin"))) {
+            SharedPreferences prefs = context.getApplicationContext()
+                    .getSharedPreferences(ThemePalette.PREFS, Context.MODE_PRIVATE);
+            for (Difficulty d : Difficulty.values()) {
+                store.importBest(d, prefs.getInt("bestScore_" + d.key, 0),
+                        prefs.getInt("bestTime_" + d.key, Integer.MAX_VALUE));
+            }
+            store.whenWritten(() -> {
+                SharedPreferences.Editor editor = prefs.edit();
+                for (Difficulty d : Difficulty.values()) {
+                    editor.remove("bestScore_" + d.key).remove("bestTime_" + d.key);
+                }
+                editor.apply();
+            });
+        }
+        return store;
+    }
+}
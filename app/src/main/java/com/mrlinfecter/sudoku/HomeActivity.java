@@ -12,6 +12,7 @@ import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
@@ -24,26 +25,24 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
-import androidx.core.content.ContextCompat;
 
 import com.google.android.material.bottomsheet.BottomSheetDialog;
+import com.mrlinfecter.sudoku.core.Difficulty;
+import com.mrlinfecter.sudoku.core.PuzzlePool;
+import com.mrlinfecter.sudoku.core.RecordsStore;
 
-import java.util.Random;
+import java.io.File;
 
 public class HomeActivity extends AppCompatActivity implements SensorEventListener {
 
-    private Handler handler = new Handler();
-    private Random random = new Random();
     private FrameLayout root;
-    private int screenWidth;
-    private int screenHeight;
+    private DigitRainView rain;
 
     private SensorManager mSensorManager;
     private float mAccel; // accélération actuelle
     private float mAccelCurrent; // accélération actuelle (avec gravité)
     private float mAccelLast; // accélération précédente
     private boolean isFragmentAnimationRunning = false;
-    private FrameLayout rootContainer;
     private Handler fragmentHandler = new Handler();
     private final int SHAKE_THRESHOLD = 15;
 
@@ -92,59 +91,47 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
         }
     }
 
-    private final Runnable fragmentRunnable = new Runnable() {
-        @Override
-        public void run() {
-            if (isFragmentAnimationRunning) {
-                // CORRECTION : Appelons la méthode complète de chute et de casse
-                addExtremeBreakingNumber();
-
-                // On augmente la fréquence pour que l'effet soit visible
-                fragmentHandler.postDelayed(this, 250); // Un peu plus lent que la pluie normale (150ms) mais plus dense
-            }
-        }
-    };
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         applySavedTheme();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_home);
 
+        // Réserve de grilles conservée entre deux lancements
+        PuzzlePool.getInstance().attachStore(new File(getFilesDir(), "puzzle_pool.bin"));
+
         ImageView btnSettings = findViewById(R.id.btnSettings);
 
         // On réutilise la fonction de dialogue que nous avons créée avant
         btnSettings.setOnClickListener(v -> showThemeChooserDialog());
 
         SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        if (prefs.getInt("theme_mode", 3) == 3) {
+        ThemePalette theme = ThemePalette.get(this);
+        if (theme.appTheme) {
             // On force le fond bleu sur l'écran et la palette
-            findViewById(android.R.id.content).setBackgroundColor(Color.parseColor("#3352a2"));
-            findViewById(R.id.rootFrame).setBackgroundColor(Color.parseColor("#3352a2"));
+            findViewById(android.R.id.content).setBackgroundColor(theme.screenBg);
+            findViewById(R.id.rootFrame).setBackgroundColor(theme.screenBg);
 
-            ((TextView) findViewById(R.id.homeTitle)).setTextColor(Color.parseColor("#F4D7D3"));
-            ((TextView) findViewById(R.id.textEasy)).setTextColor(Color.parseColor("#F4D7D3"));
-            ((TextView) findViewById(R.id.textNormal)).setTextColor(Color.parseColor("#F4D7D3"));
-            ((TextView) findViewById(R.id.textHard)).setTextColor(Color.parseColor("#F4D7D3"));
-            ((TextView) findViewById(R.id.recordEasy)).setTextColor(Color.parseColor("#ed6851"));
-            ((TextView) findViewById(R.id.recordHard)).setTextColor(Color.parseColor("#ed6851"));
-            ((TextView) findViewById(R.id.recordNormal)).setTextColor(Color.parseColor("#ed6851"));
+            ((TextView) findViewById(R.id.homeTitle)).setTextColor(theme.textPrimary);
+            ((TextView) findViewById(R.id.textEasy)).setTextColor(theme.textPrimary);
+            ((TextView) findViewById(R.id.textNormal)).setTextColor(theme.textPrimary);
+            ((TextView) findViewById(R.id.textHard)).setTextColor(theme.textPrimary);
+            ((TextView) findViewById(R.id.recordEasy)).setTextColor(theme.accent);
+            ((TextView) findViewById(R.id.recordHard)).setTextColor(theme.accent);
+            ((TextView) findViewById(R.id.recordNormal)).setTextColor(theme.accent);
 
-            findViewById(R.id.btnEasy).setBackgroundResource(R.drawable.bg_button_default_theme);
-            findViewById(R.id.btnNormal).setBackgroundResource(R.drawable.bg_button_default_theme);
-            findViewById(R.id.btnHard).setBackgroundResource(R.drawable.bg_button_default_theme);
+            findViewById(R.id.btnEasy).setBackgroundResource(theme.buttonBg);
+            findViewById(R.id.btnNormal).setBackgroundResource(theme.buttonBg);
+            findViewById(R.id.btnHard).setBackgroundResource(theme.buttonBg);
 
 
         }
 
         root = findViewById(R.id.rootFrame);
+        rain = findViewById(R.id.digitRain);
+        rain.setColor(theme.rainColor);
 
         root.post(() -> {
-            screenWidth = root.getWidth();
-            screenHeight = root.getHeight();
-            startRain();
-
-            rootContainer = root;
             mSensorManager = (SensorManager) getSystemService(Context.SENSOR_SERVICE);
             mSensorManager.registerListener(this, mSensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_UI);
             mAccel = 0.00f;
@@ -160,9 +147,10 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
         ViewGroup parentContainer = (ViewGroup) btnHard.getParent();
 
         // Récupération des records
-        int recordEasy = prefs.getInt("bestScore_easy", 0);
-        int recordNormal = prefs.getInt("bestScore_normal", 0);
-        int recordHard = prefs.getInt("bestScore_hard", 0);
+        RecordsStore records = GameRecords.get(this);
+        int recordEasy = records.stats(Difficulty.EASY).getBestScore();
+        int recordNormal = records.stats(Difficulty.NORMAL).getBestScore();
+        int recordHard = records.stats(Difficulty.HARD).getBestScore();
 
         // MODIFICATION : Vérifier l'état de déverrouillage du mode Extrême
         boolean isExtremeUnlocked = prefs.getBoolean("ExtremeModeUnlocked", false);
@@ -198,11 +186,7 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
             btnExtreme.setLayoutParams(lp);
 
             // Style du Conteneur (Copie des attributs de btnEasy)
-            if (prefs.getInt("theme_mode", 3) == 3) {
-                btnExtreme.setBackgroundResource(R.drawable.bg_button_default_theme);
-            }else{
-                btnExtreme.setBackgroundResource(R.drawable.bg_palette_number);
-            }
+            btnExtreme.setBackgroundResource(theme.buttonBg);
              // Fond
             btnExtreme.setOrientation(LinearLayout.VERTICAL);
             btnExtreme.setGravity(Gravity.CENTER);
@@ -217,11 +201,7 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
             titleExtreme.setTypeface(null, Typeface.BOLD);
 
             // Couleur du titre : Utiliser R.color.text_palette comme dans le XML (Facile/Normal/Difficile)
-            if (prefs.getInt("theme_mode", 3) == 3) {
-                titleExtreme.setTextColor(Color.parseColor("#F4D7D3"));
-            }else{
-                titleExtreme.setTextColor(ContextCompat.getColor(this, R.color.text_palette));
-            }
+            titleExtreme.setTextColor(theme.textPalette);
 
             titleExtreme.setGravity(Gravity.CENTER_HORIZONTAL);
 
@@ -232,18 +212,14 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
 
             // 3. Créer le TextView du record (Score)
             TextView tvExtreme = new TextView(this);
-            int recordExtreme = prefs.getInt("bestScore_extreme", 0);
+            int recordExtreme = records.stats(Difficulty.EXTREME).getBestScore();
             tvExtreme.setText(recordExtreme > 0 ? "Record: " + recordExtreme : "Record: --");
 
             // Taille du record: "14sp"
             tvExtreme.setTextSize(TypedValue.COMPLEX_UNIT_SP, 14f);
 
             // Couleur du record: Utiliser R.color.text_accent comme dans le XML
-            if (prefs.getInt("theme_mode", 3) == 3) {
-                tvExtreme.setTextColor(Color.parseColor("#ed6851"));
-            }else{
-                tvExtreme.setTextColor(ContextCompat.getColor(this, R.color.text_accent));
-            }
+            tvExtreme.setTextColor(theme.textAccent);
 
 
             // Marge Top pour le record: "4dp"
@@ -276,95 +252,6 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
         startActivity(intent);
     }
 
-    private void startRain() {
-        handler.post(rainRunnable);
-    }
-
-    private final Runnable rainRunnable = new Runnable() {
-        @Override
-        public void run() {
-            // Ajouter un nouveau chiffre
-            addNumber();
-
-            // Re-lancer toutes les 150ms pour créer la pluie continue
-            handler.postDelayed(this, 150);
-        }
-    };
-
-    private void addNumber() {
-        int n = 1 + random.nextInt(9);
-        TextView tv = new TextView(this);
-        tv.setText(String.valueOf(n));
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        if (prefs.getInt("theme_mode", 3) == 3) {
-            tv.setTextColor(ContextCompat.getColor(this, R.color.app_default_text));
-        }else{
-            tv.setTextColor(ContextCompat.getColor(this, R.color.text_primary));
-        }
-        tv.setTextSize(18 + random.nextInt(12));
-        tv.setAlpha(0.1f + random.nextFloat() * 0.3f);
-
-        // Position initiale aléatoire en haut
-        float x = random.nextFloat() * screenWidth;
-        float y = -50f; // juste au-dessus de l'écran
-        tv.setX(x);
-        tv.setY(y);
-
-        root.addView(tv);
-
-        // Durée et position finale aléatoire
-        float endY = screenHeight + 50f;
-        long duration = 4000 + random.nextInt(3000);
-
-        tv.animate()
-                .translationY(endY)
-                .setDuration(duration)
-                .withEndAction(() -> root.removeView(tv))
-                .start();
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        handler.removeCallbacks(rainRunnable);
-    }
-
-    private void spawnBreakingFragments(float centerX, float centerY, int originalNumber) {
-        int numFragments = 3 + random.nextInt(3); // 2 à 4 fragments
-        for (int i = 0; i < numFragments; i++) {
-            TextView fragmentTv = new TextView(this);
-            fragmentTv.setText(String.valueOf(originalNumber)); // Les fragments gardent le même chiffre
-            SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-            if (prefs.getInt("theme_mode", 3) == 3) {
-                fragmentTv.setTextColor(ContextCompat.getColor(this, R.color.app_default_text));
-            }else{
-                fragmentTv.setTextColor(ContextCompat.getColor(this, R.color.text_primary));
-            }
-            fragmentTv.setTextSize(TypedValue.COMPLEX_UNIT_SP, 10 + random.nextInt(6)); // Petits fragments
-            fragmentTv.setAlpha(0.3f + random.nextFloat() * 0.4f);
-            fragmentTv.setTypeface(null, Typeface.BOLD);
-
-            fragmentTv.setX(centerX);
-            fragmentTv.setY(centerY);
-
-            rootContainer.addView(fragmentTv);
-
-            double angle = random.nextDouble() * 2 * Math.PI; // Angle de dispersion aléatoire
-            float distance = 100 + random.nextFloat() * 150;    // Distance de dispersion
-            float endX = centerX + (float) (Math.cos(angle) * distance);
-            float endY = centerY + (float) (Math.sin(angle) * distance) + (screenHeight - centerY); // Tombent vers le bas
-            long duration = 1000 + random.nextInt(800);
-
-            fragmentTv.animate()
-                    .x(endX)
-                    .y(endY) // Continuent de tomber
-                    .alpha(0f) // Disparaissent progressivement
-                    .setDuration(duration)
-                    .withEndAction(() -> rootContainer.removeView(fragmentTv))
-                    .start();
-        }
-    }
-
     @Override
     public void onSensorChanged(SensorEvent event) {
         if (event.sensor.getType() == Sensor.TYPE_ACCELEROMETER) {
@@ -403,80 +290,16 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
             isFragmentAnimationRunning = true;
             Toast.makeText(this, "⭐ EASTER EGG ACTIVÉ ! ⭐", Toast.LENGTH_SHORT).show();
 
-            // 1. Stopper la pluie normale
-            handler.removeCallbacks(rainRunnable);
-
-            // 2. Lancer la chute cassante (via le Runnable)
-            fragmentHandler.post(fragmentRunnable);
+            // La pluie normale laisse place à la chute cassante
+            rain.setMode(DigitRainView.MODE_BREAKING);
         } else {
             // --- DÉSACTIVER l'Easter Egg ---
             isFragmentAnimationRunning = false;
             Toast.makeText(this, "Easter Egg désactivé.", Toast.LENGTH_SHORT).show();
 
-            // 1. Stopper la chute cassante
-            fragmentHandler.removeCallbacks(fragmentRunnable);
-
-            // 2. Réactiver la pluie normale
-            handler.post(rainRunnable);
-        }
-    }
-
-    private void startExtremeRainAnimation() {
-        handler.post(extremeRainRunnable);
-    }
-
-    private final Runnable extremeRainRunnable = new Runnable() {
-        @Override
-        public void run() {
-            addExtremeBreakingNumber();
-            handler.postDelayed(this, 150); // Lancer un nouveau chiffre toutes les 300ms
-
+            // Retour à la pluie normale
+            rain.setMode(DigitRainView.MODE_RAIN);
         }
-    };
-
-    private void addExtremeBreakingNumber() {
-        if (rootContainer == null || screenWidth == 0 || screenHeight == 0) return; // Sécurité
-
-        int mainNumber = 1 + random.nextInt(9);
-        TextView tv = new TextView(this);
-        tv.setText(String.valueOf(mainNumber));
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        if (prefs.getInt("theme_mode", 3) == 3) {
-            tv.setTextColor(ContextCompat.getColor(this, R.color.app_default_text));
-        }else{
-            tv.setTextColor(ContextCompat.getColor(this, R.color.text_primary));
-        }
-         // Couleur "extrême"
-        tv.setTextSize(TypedValue.COMPLEX_UNIT_SP, 18 + random.nextInt(12)); // Taille un peu plus grande
-        tv.setTypeface(null, Typeface.BOLD);
-        tv.setAlpha(0.1f + random.nextFloat() * 0.3f); // Plus visible qu'en HomeActivity
-
-        // Position initiale aléatoire en haut
-        float startX = random.nextFloat() * screenWidth;
-        float startY = -50f; // Juste au-dessus de l'écran
-        tv.setX(startX);
-        tv.setY(startY);
-
-        rootContainer.addView(tv);
-
-        // Point où le chiffre va se "casser" (ex: au milieu de l'écran)
-        float breakY = screenHeight * (0.3f + random.nextFloat() * 0.4f); // Entre 30% et 70% de l'écran
-
-        // Position finale (pour la chute des fragments)
-        float endY = screenHeight + 100f;
-        long initialDuration = 1500 + random.nextInt(1000); // Durée avant la "casse"
-
-        tv.animate()
-                .translationY(breakY)
-                .setDuration(initialDuration)
-                .withEndAction(() -> {
-                    // Quand le chiffre atteint le point de "casse", il disparaît
-                    rootContainer.removeView(tv);
-
-                    // Et génère des fragments
-                    spawnBreakingFragments(startX, breakY, mainNumber);
-                })
-                .start();
     }
 
     @Override
@@ -484,28 +307,21 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
         // Ignoré
     }
 
-    // NOUVEAU : Méthode pour démarrer l'animation
-    private void startFragmentCelebration() {
-        // Optionnel : Afficher un Toast pour confirmer l'Easter Egg
-        Toast.makeText(this, "Easter Egg activé ! Secouez à nouveau pour arrêter.", Toast.LENGTH_SHORT).show();
-
-        handler.removeCallbacks(rainRunnable);
-        fragmentHandler.post(fragmentRunnable);
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
+        // Préparer des grilles d'avance pendant que l'accueil est inactif
+        Looper.myQueue().addIdleHandler(() -> {
+            PuzzlePool.getInstance().refillAsync();
+            return false;
+        });
+
         if (mSensorManager != null) {
             mSensorManager.registerListener(this, mSensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_UI);
         }
 
-        // NOUVEAU : Reprendre la bonne animation après une pause
-        if (isFragmentAnimationRunning) {
-            fragmentHandler.post(fragmentRunnable);
-        } else {
-            handler.post(rainRunnable);
-        }
+        // Reprendre l'animation (le mode pluie / casse est gardé par la vue)
+        rain.start();
     }
 
     @Override
@@ -514,8 +330,7 @@ public class HomeActivity extends AppCompatActivity implements SensorEventListen
         if (mSensorManager != null) {
             mSensorManager.unregisterListener(this);
         }
-        // NOUVEAU : Stopper les deux handlers pendant la pause
-        handler.removeCallbacks(rainRunnable);
-        fragmentHandler.removeCallbacks(fragmentRunnable);
+        // Plus de nouveaux chiffres pendant la pause
+        rain.stop();
     }
 }
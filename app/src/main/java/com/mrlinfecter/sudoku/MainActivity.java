@@ -1,7 +1,5 @@
 package com.mrlinfecter.sudoku;
 
-import android.annotation.SuppressLint;
-import android.app.AlertDialog;
 import android.content.ClipData;
 import android.content.Intent;
 import android.content.SharedPreferences;
@@ -12,51 +10,70 @@ import android.graphics.Typeface;
 import android.os.Bundle;
 import android.os.CountDownTimer;
 import android.os.Handler;
+import android.os.Looper;
 import android.util.DisplayMetrics;
-import android.util.Log;
-import android.util.TypedValue;
 import android.view.DragEvent;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
-import android.widget.Button;
 import android.widget.FrameLayout;
-import android.widget.GridLayout;
-import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
-import androidx.core.content.ContextCompat;
 
+import com.mrlinfecter.sudoku.core.Difficulty;
+import com.mrlinfecter.sudoku.core.GameSnapshot;
+import com.mrlinfecter.sudoku.core.GameState;
+import com.mrlinfecter.sudoku.core.GenerationExecutor;
+import com.mrlinfecter.sudoku.core.HintEngine;
+import com.mrlinfecter.sudoku.core.MoveJournal;
+import com.mrlinfecter.sudoku.core.Puzzle;
+import com.mrlinfecter.sudoku.core.PuzzlePool;
+import com.mrlinfecter.sudoku.core.RecordsStore;
+import com.mrlinfecter.sudoku.core.SnapshotStore;
+
+import java.io.File;
 import java.util.Arrays;
-import java.util.Random;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MainActivity extends AppCompatActivity {
 
     private int[][] puzzle;
     private int[][] solution;
-
-    private GridLayout grid;
+    private GameState game; // compteurs de la partie (chiffres posés, cases vides)
+    private Difficulty level;
+    private static final long GENERATION_BUDGET_MS = 1500;
+    // Génération en attente : elle survit à une recréation de l'activité (thème, langue...),
+    // la nouvelle instance s'y rebranche ; annulée seulement quand l'écran est vraiment quitté.
+    // Champs lus et écrits sur le thread UI uniquement.
+    private static GenerationExecutor.Task generation;
+    private static Difficulty generationLevel;
+    private static Puzzle generated;         // arrivée pendant la recréation, pas encore prise
+    private static MainActivity waiting;     // instance qui attend la grille
+    private Runnable afterGeneration;
+    private MoveJournal journal; // historique des coups (annuler / refaire, reprise après crash)
+    private File journalFile;
+
+    private SudokuBoardView grid;
     private LinearLayout palette;
-    private TextView statusText, scoreText, timerText;
+    private TextView statusText, scoreText, timerText, undoText, redoText;
 
     private int score = 0;
     private CountDownTimer timer;
     private int seconds = 0;
+    private int mistakes = 0; // mauvais chiffres proposés
     private int bestScore = 0;
     private int bestTime = Integer.MAX_VALUE; // secondes
     private TextView recordText;
     private boolean darkMode = false;
-    private TextView selectedCell = null;
-    private TextView oldSelectedCell = null;
+    private int hintCell = -1; // case visée par l'aide
+    private int hintDigit = 0; // chiffre proposé par le dernier indice logique (0 = aucun)
+    private final HintEngine hintEngine = new HintEngine();
+    private final String[] hintLabels = new String[1 << 9]; // texte de l'aide par masque de candidats, construit une fois
     private LinearLayout hintsContainer;
     private TextView hintsText;
-    private int highlightedNumber = -1;
 
     private boolean helpActivate = false;
 
@@ -86,6 +103,9 @@ public class MainActivity extends AppCompatActivity {
         applySavedTheme();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        PuzzlePool.getInstance().attachStore(new File(getFilesDir(), "puzzle_pool.bin"));
+        SnapshotStore.getInstance().attach(new File(getFilesDir(), "game_snapshot.bin"));
+        journalFile = new File(getFilesDir(), "game_journal.bin");
 
         // --- Si on est en mode Bleu, on colorie l'engrenage en Rose ---
         /*SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
@@ -100,24 +120,28 @@ public class MainActivity extends AppCompatActivity {
         statusText = findViewById(R.id.statusText);
         scoreText = findViewById(R.id.scoreText);
         timerText = findViewById(R.id.timerText);
+        undoText = findViewById(R.id.undoText);
+        redoText = findViewById(R.id.redoText);
         recordText = findViewById(R.id.recordText);
         hintsText = findViewById(R.id.hintsText);
         View spacerView = findViewById(R.id.spacer_view);
 
         // 3. APPLIQUER LES COULEURS DU THÈME PAR DÉFAUT (Bleu)
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        if (prefs.getInt("theme_mode", 3) == 3) {
+        ThemePalette theme = ThemePalette.get(this);
+        if (theme.appTheme) {
             // On force le fond bleu sur l'écran et la palette
-            findViewById(android.R.id.content).setBackgroundColor(Color.parseColor("#3352a2"));
-            findViewById(R.id.spacer_view).setBackgroundColor(Color.parseColor("#3352a2"));
-            palette.setBackgroundColor(Color.parseColor("#3352a2"));
-            fondDeBase.setBackgroundColor(Color.parseColor("#3352a2"));
+            findViewById(android.R.id.content).setBackgroundColor(theme.screenBg);
+            findViewById(R.id.spacer_view).setBackgroundColor(theme.screenBg);
+            palette.setBackgroundColor(theme.screenBg);
+            fondDeBase.setBackgroundColor(theme.screenBg);
             // On met le texte en rose pâle pour qu'il soit lisible sur le bleu
-            statusText.setTextColor(Color.parseColor("#f4d7d3"));
-            scoreText.setTextColor(Color.parseColor("#f4d7d3"));
-            timerText.setTextColor(Color.parseColor("#f4d7d3"));
-            recordText.setTextColor(Color.parseColor("#f4d7d3"));
-            hintsText.setTextColor(Color.parseColor("#f4d7d3"));
+            statusText.setTextColor(theme.textPrimary);
+            scoreText.setTextColor(theme.textPrimary);
+            timerText.setTextColor(theme.textPrimary);
+            undoText.setTextColor(theme.textPrimary);
+            redoText.setTextColor(theme.textPrimary);
+            recordText.setTextColor(theme.textPrimary);
+            hintsText.setTextColor(theme.textPrimary);
 
         }
 
@@ -138,131 +162,296 @@ public class MainActivity extends AppCompatActivity {
         // 6. DIFFICULTÉ ET RECORDS
         String difficulty = getIntent().getStringExtra("difficulty");
         if (difficulty == null) difficulty = "normal";
-        loadRecord(difficulty);
+        level = Difficulty.fromKey(difficulty);
+        loadRecord();
         updateRecordText();
 
         // 7. GÉNÉRATION DU JEU
-        String finalDifficulty = difficulty;
         grid.post(() -> {
-            int width = grid.getWidth();
-            int height = grid.getHeight();
-            int size = Math.min(width, height);
-
-            ViewGroup.LayoutParams params = grid.getLayoutParams();
-            params.width = size;
-            params.height = size;
-            grid.setLayoutParams(params);
-
-            new Thread(() -> {
-                SudokuGenerator generator = new SudokuGenerator();
-                int emptyCells;
-                switch (finalDifficulty) {
-                    case "easy": emptyCells = 30; break;
-                    case "hard": emptyCells = 50; break;
-                    case "extreme": emptyCells = 60; break;
-                    default: emptyCells = 40; break;
-                }
+            // Partie en cours du même niveau : on la reprend telle quelle, sans rien générer
+            GameSnapshot saved = SnapshotStore.getInstance().load();
+            MoveJournal kept = MoveJournal.read(journalFile);
+            if (saved != null && saved.difficulty != level) saved = null;
+            if (kept != null && kept.getStart().difficulty != level) kept = null;
+            if (saved != null || kept != null) {
+                resumeGame(saved, kept);
+                return;
+            }
 
-                solution = generator.generateSolution();
-                puzzle = generator.generatePuzzle(solution, emptyCells);
+            // Recréation de l'activité pendant une génération : on reprend la même demande
+            if (generationLevel == level && (generation != null || generated != null)) {
+                awaitPuzzle(this::startGame);
+                return;
+            }
 
-                runOnUiThread(() -> {
-                    buildGrid();
-                    buildPalette();
-                    startTimer();
-                    applyTheme(); // ici n'est plus forcément nécessaire si buildGrid utilise getAdaptiveColor
-                });
-            }).start();
+            // Grille déjà prête dans la réserve : démarrage immédiat
+            Puzzle ready = PuzzlePool.getInstance().take(level);
+            if (ready != null) {
+                solution = ready.solution;
+                puzzle = ready.grid;
+                startGame();
+                return;
+            }
+
+            requestPuzzle(this::startGame);
         });
 
         // 8. LOGIQUE DE L'AIDE
         hintsText.setText("Activer l'aide ? 💡");
-        hintsText.setOnClickListener(v -> {
-            Popup.show(this, yes -> {
-                helpActivate = yes;
-            });
+        hintsText.setOnClickListener(v -> onHintsClick());
+        // Appui long avec l'aide active : notes de toutes les cases dans la grille
+        hintsText.setOnLongClickListener(v -> {
+            if (!helpActivate) return false;
+            grid.setPencilMarks(!grid.isPencilMarks());
+            return true;
         });
+
+        // 9. ANNULER / REFAIRE (l'annulation reprend les points du coup, refaire les rend)
+        undoText.setOnClickListener(v -> undoMove());
+        redoText.setOnClickListener(v -> redoMove());
     }
 
-    private void showPossibleNumbers(CellTag tag, TextView cell) {
-        if (tag.fixed) {
-            hintsText.setText("");
-            return;
-        }
+    // Génération en priorité FOREGROUND : passe devant le remplissage de la réserve,
+    // rend la meilleure grille trouvée après GENERATION_BUDGET_MS et s'annule si l'écran est quitté
+    private void requestPuzzle(Runnable then) {
+        dropGeneration();
+        generationLevel = level;
+        Handler main = new Handler(Looper.getMainLooper());
+        // Peu d'essais ici : le joueur attend, la réserve fait mieux en arrière-plan
+        GenerationExecutor.Task[] task = new GenerationExecutor.Task[1];
+        task[0] = GenerationExecutor.getInstance().submit(GenerationExecutor.Priority.FOREGROUND,
+                System.nanoTime(), level, 16, GENERATION_BUDGET_MS, result -> main.post(() -> {
+                    if (generation != task[0] || task[0].isCancelled()) return;
+                    generation = null;
+                    generated = result;
+                    if (waiting != null) waiting.takeGenerated();
+                }));
+        generation = task[0];
+        awaitPuzzle(then);
+    }
 
-        oldSelectedCell = selectedCell;
-        selectedCell = cell;
+    // Branche cette instance sur la génération en cours (ou sur la grille déjà arrivée)
+    private void awaitPuzzle(Runnable then) {
+        waiting = this;
+        afterGeneration = then;
+        if (generated != null) takeGenerated();
+    }
 
-        boolean[] possible = getPossibleNumbers(tag.r, tag.c);
+    private void takeGenerated() {
+        Puzzle result = generated;
+        Runnable then = afterGeneration;
+        generated = null;
+        generationLevel = null;
+        waiting = null;
+        afterGeneration = null;
+        solution = result.solution;
+        puzzle = result.grid;
+        then.run();
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("💡");
-        for (int n = 1; n <= 9; n++) {
-            if (possible[n]) sb.append(n).append(" ");
+    private static void dropGeneration() {
+        if (generation != null) generation.cancel();
+        generation = null;
+        generated = null;
+        generationLevel = null;
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (waiting != this) return; // la génération en cours appartient à une autre instance
+        waiting = null;
+        // Simple recréation : la demande continue pour l'instance suivante
+        if (isFinishing()) dropGeneration();
+    }
+
+    private void startGame() {
+        game = new GameState(puzzle, solution);
+        startJournal(null);
+        showGame();
+    }
+
+    // La photo donne l'état exact de la partie ; le journal n'est gardé que s'il la rejoint
+    // (il est écrit par paquets, un crash peut lui faire perdre les derniers coups).
+    // Sans photo lisible, la partie est reconstruite en rejouant le journal.
+    private void resumeGame(GameSnapshot saved, MoveJournal kept) {
+        GameState replayed = kept == null ? null : kept.replay();
+        if (saved != null && replayed != null && (kept.getScore() != saved.score
+                || !Arrays.deepEquals(replayed.getGrid(), saved.grid))) {
+            replayed = null;
+            kept = null;
         }
 
-        hintsText.setText(sb.toString().trim());
-        hintsText.setVisibility(View.VISIBLE);
+        if (kept != null) {
+            game = replayed;
+            score = kept.getScore();
+            seconds = saved != null ? saved.seconds : kept.getSeconds();
+            helpActivate = kept.isHelpUsed();
+            mistakes = saved != null ? saved.mistakes : kept.getMistakes();
+            startJournal(kept);
+        } else {
+            game = saved.toGameState();
+            score = saved.score;
+            seconds = saved.seconds;
+            helpActivate = saved.help;
+            mistakes = saved.mistakes;
+            startJournal(null);
+        }
+        solution = game.getSolution();
+        puzzle = game.getGrid();
+        if (helpActivate) hintsText.setText("💡");
+        updateScore();
+        timerText.setText(String.format("Temps: %02d:%02d", seconds / 60, seconds % 60));
+        showGame();
+    }
 
-        // Ajout du clic sur les chiffres dans le TextView
-        hintsText.setOnClickListener(v -> {
-            String text = hintsText.getText().toString().replaceAll("\\s+", "").replace("💡", "");
-            if (text.isEmpty() || text.length() > 1) return;
-
-            // ici tu peux choisir le premier chiffre possible pour test ou un chiffre fixe pour cliquer
-            int number = Character.getNumericValue(text.charAt(0));
-            if (selectedCell != null ) {
-                selectedCell.setText(String.valueOf(number));
-                puzzle[tag.r][tag.c] = number;
-                if (number == solution[tag.r][tag.c]) {
-                    tag.fixed = true;
-                    selectedCell.setTextColor(getColor(R.color.text_primary));
-                    score += 10;
-                    updateScore();
-                    highlightNumbers();
-                    checkWin();
-                } else {
-                    score -= 10;
-                    updateScore();
-                    selectedCell.setText("");
-                }
-            }
-        });
+    // Journal de la partie courante, réécrit en entier sur le disque (null = nouveau depuis l'état actuel)
+    private void startJournal(MoveJournal kept) {
+        if (journal != null) journal.delete();
+        journal = kept != null ? kept : new MoveJournal(GameSnapshot.of(game, score, seconds, helpActivate, mistakes, level));
+        journal.attach(journalFile);
     }
 
+    // Consigne un coup déjà appliqué ; la variation du score est l'écart avec le total du journal
+    private void logMove(int cell, int digit, int outcome) {
+        if (outcome == MoveJournal.WRONG) mistakes++;
+        if (journal == null) return;
+        journal.record(cell, digit, outcome, score - journal.getScore(), seconds * 1000L);
+    }
 
+    private void undoMove() {
+        if (game == null || journal == null || game.isSolved()) return;
+        onMoveReverted(journal.undo(game, seconds * 1000L));
+    }
 
+    private void redoMove() {
+        if (game == null || journal == null || game.isSolved()) return;
+        onMoveReverted(journal.redo(game, seconds * 1000L));
+        checkWin();
+    }
 
-    private boolean[] getPossibleNumbers(int row, int col) {
-        boolean[] possible = new boolean[10]; // index 1..9
-        for (int i = 1; i <= 9; i++) possible[i] = true;
+    private void onMoveReverted(int cell) {
+        if (cell < 0) return;
+        hintEngine.reset(); // ses éliminations ne valent plus pour la nouvelle grille
+        grid.onCellChanged(cell);
+        updatePaletteState();
+        score = journal.getScore(); // l'annulation reprend les points du coup, refaire les rend
+        updateScore();
+    }
 
-        // Ligne
-        for (int c = 0; c < 9; c++) {
-            int val = puzzle[row][c];
-            if (val != 0) possible[val] = false;
-        }
+    private void showGame() {
+        hintEngine.reset();
+        buildGrid();
+        buildPalette();
+        startTimer();
+        applyTheme(); // ici n'est plus forcément nécessaire si buildGrid utilise la palette du thème
 
-        // Colonne
-        for (int r = 0; r < 9; r++) {
-            int val = puzzle[r][col];
-            if (val != 0) possible[val] = false;
+        // Recompléter la réserve quand l'UI n'a plus rien à faire
+        Looper.myQueue().addIdleHandler(() -> {
+            PuzzlePool.getInstance().refillAsync();
+            return false;
+        });
+    }
+
+    private void showPossibleNumbers(int row, int col) {
+        if (game.get(row, col) != 0) {
+            hintsText.setText("");
+            return;
         }
 
-        // Bloc 3x3
-        int startRow = (row / 3) * 3;
-        int startCol = (col / 3) * 3;
-        for (int r = startRow; r < startRow + 3; r++) {
-            for (int c = startCol; c < startCol + 3; c++) {
-                int val = puzzle[r][c];
-                if (val != 0) possible[val] = false;
+        hintCell = row * 9 + col;
+        hintDigit = 0;
+        hintsText.setText(hintLabel(game.candidates(row, col)));
+        hintsText.setVisibility(View.VISIBLE);
+    }
+
+    private String hintLabel(int possible) {
+        String label = hintLabels[possible];
+        if (label == null) {
+            StringBuilder sb = new StringBuilder("💡");
+            for (int n = 1; n <= 9; n++) {
+                if ((possible & (1 << (n - 1))) != 0) sb.append(n).append(" ");
             }
+            label = sb.toString().trim();
+            hintLabels[possible] = label;
+        }
+        return label;
+    }
+
+    // Un seul listener : activation de l'aide, pose du chiffre quand il est connu, sinon indice logique
+    private void onHintsClick() {
+        if (!helpActivate) {
+            Popup.show(this, yes -> {
+                helpActivate = yes;
+                if (yes) logMove(0, 0, MoveJournal.HELP);
+                saveSnapshot(); // l'aide divise le score : elle doit survivre à un crash
+            });
+            return;
+        }
+        if (game == null) return;
+
+        int number = 0;
+        if (hintCell >= 0 && game.get(hintCell / 9, hintCell % 9) == 0) {
+            int possible = game.candidates(hintCell / 9, hintCell % 9);
+            if (hintDigit != 0) number = hintDigit;
+            else if (Integer.bitCount(possible) == 1) number = Integer.numberOfTrailingZeros(possible) + 1;
+        }
+        if (number == 0) {
+            showLogicalHint();
+            return;
         }
 
-        return possible;
+        int row = hintCell / 9;
+        int col = hintCell % 9;
+        hintDigit = 0;
+        if (number == solution[row][col]) {
+            game.set(row, col, number);
+            grid.onCellChanged(hintCell);
+            score += 10;
+            logMove(hintCell, number, MoveJournal.HINTED);
+            updateScore();
+            checkWin();
+        } else {
+            score -= 10;
+            logMove(hintCell, number, MoveJournal.WRONG);
+            updateScore();
+        }
     }
 
+    // Prochaine déduction : la case à remplir (un nouveau clic la remplit) ou les candidats à retirer
+    private void showLogicalHint() {
+        HintEngine.Hint hint = hintEngine.next(game);
+        if (hint == null) {
+            hintsText.setText("💡 Aucune déduction trouvée");
+            return;
+        }
 
+        StringBuilder sb = new StringBuilder("💡 ").append(hint.technique.label).append(" : ");
+        if (hint.isPlacement()) {
+            hintCell = hint.cells[0];
+            hintDigit = hint.digit;
+            sb.append(hint.digit).append(" en ").append(cellName(hintCell));
+        } else {
+            hintCell = -1;
+            hintDigit = 0;
+            sb.append("retirer");
+            for (int j = 0; j < hint.eliminationCells.length; j++) {
+                sb.append(j == 0 ? " " : ", ");
+                int mask = hint.eliminationMasks[j];
+                for (int n = 1; n <= 9; n++) {
+                    if ((mask & (1 << (n - 1))) != 0) sb.append(n);
+                }
+                sb.append(" de ").append(cellName(hint.eliminationCells[j]));
+            }
+        }
+        grid.setSelectedCell(hint.cells[0]);
+        hintsText.setText(sb);
+        hintsText.setVisibility(View.VISIBLE);
+    }
+
+    private static String cellName(int index) {
+        return "L" + (index / 9 + 1) + "C" + (index % 9 + 1);
+    }
 
 
 
@@ -295,179 +484,74 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void buildGrid() {
-        grid.removeAllViews();
+        grid.setGame(game);
+        grid.setSelectedCell(-1);
+        grid.setHighlightedNumber(-1);
+        grid.setOnCellClickListener(this::onCellClick);
+        applyGridColors();
+        highlightNumbers();
+    }
 
-        // --- GESTION DES COULEURS DES BORDURES ---
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        int currentTheme = prefs.getInt("theme_mode", 3);
-
-        // Si thème 3 (Bleu), bordures Roses, sinon bordures Noires (standard)
-        //int borderColor = (currentTheme == 3) ? Color.parseColor("#244393") : Color.BLACK;
-        int borderColor = (currentTheme == 3) ? Color.parseColor("#4261B1") : Color.BLACK;
-        grid.setBackgroundColor(borderColor);
-
-        // Couleur pour les cases vides (transparent pour voir le fond ou couleur spécifique)
-        //int emptyCellBg = (currentTheme == 3) ? Color.parseColor("#4261B1") : getColor(R.color.bg_cell_empty);
-        int emptyCellBg = (currentTheme == 3) ? Color.parseColor("#244393") : getColor(R.color.bg_cell_empty);
-        // ------------------------------------------
-
-        int size = Math.min(grid.getWidth(), grid.getHeight());
-
-        int thin = dp(1);
-        int thick = dp(4);
-
-        int totalGaps = 4 * thick + 6 * thin;
-        int cellSize = (size - totalGaps) / 9;
-
-        int leftover = size - (cellSize * 9 + totalGaps);
-        float density = getResources().getDisplayMetrics().density;
-        float optimalTextSizeSp = (float) (cellSize / density) * 0.45f;
-
-        for (int r = 0; r < 9; r++) {
-            for (int c = 0; c < 9; c++) {
-                TextView tv = new TextView(this);
-                GridLayout.LayoutParams lp = new GridLayout.LayoutParams();
-                lp.width = cellSize;
-                lp.height = cellSize;
-
-                int left   = (c == 0 || c % 3 == 0) ? thick : thin;
-                int top    = (r == 0 || r % 3 == 0) ? thick : thin;
-                int right  = (c == 8) ? thick + leftover : 0;
-                int bottom = (r == 8) ? thick + leftover : 0;
-
-                lp.setMargins(left, top, right, bottom);
-                tv.setLayoutParams(lp);
-
-                tv.setTextSize(optimalTextSizeSp);
-                tv.setTypeface(Typeface.DEFAULT_BOLD);
-                tv.setGravity(Gravity.CENTER);
-
-                // On applique le fond de la cellule (le fond de la grille fait la bordure)
-                tv.setBackgroundColor(emptyCellBg);
-
-                int value = puzzle[r][c];
-                boolean isFixed = value != 0;
-
-                if (isFixed) {
-                    tv.setText(String.valueOf(value));
-                    // couleur cellule fixe (peut être overridée par applyTheme)
-                    tv.setTextColor(getColorOrFallback(R.color.text_primary, android.R.color.black));
-                } else {
-                    tv.setText("");
-                    tv.setTextColor(Color.DKGRAY);
-                }
+    private void applyGridColors() {
+        // Bordures, cases vides, chiffres et surlignage viennent de la palette du thème
+        ThemePalette theme = ThemePalette.get(this);
+        grid.setColors(theme.bgGrid, theme.bgCell, theme.textPrimary, theme.accent);
+    }
 
-                tv.setEnabled(true);
-                tv.setClickable(true);
-                tv.setTag(new CellTag(r, c, isFixed));
+    private void onCellClick(int row, int col) {
+        int index = row * 9 + col;
 
-                final TextView tvRef = tv;
-                tv.setOnClickListener(v -> {
-                    CellTag tag = (CellTag) tvRef.getTag();
+        if (helpActivate) {
+            showPossibleNumbers(row, col);
+            return;
+        }
 
-                    if (helpActivate) {
-                        showPossibleNumbers(tag, tvRef);
-                        return;
-                    }
+        int val = game.get(row, col);
 
-                    String val = tvRef.getText().toString();
-
-                    if (selectedNumber != -1 && val.isEmpty() && !tag.fixed) {
-                        int correct = solution[tag.r][tag.c];
-
-                        if (selectedNumber == correct) {
-                            tvRef.setText(String.valueOf(selectedNumber));
-                            // Met le chiffre en couleur adaptative
-                            tvRef.setTextColor(getAdaptiveColor(false));
-                            tag.fixed = true;
-                            puzzle[tag.r][tag.c] = selectedNumber;
-                            score += 10;
-                            updateScore();
-                            highlightNumbers();
-                            checkWin();
-
-                            tvRef.setBackgroundColor(getColor(R.color.bg_cell_good));
-                            tvRef.postDelayed(() -> tvRef.setBackgroundColor(emptyCellBg), 200);
-                            updatePaletteState();
-                        } else {
-                            tvRef.setBackgroundColor(getColor(R.color.bg_cell_not_good));
-                            tvRef.postDelayed(() -> tvRef.setBackgroundColor(emptyCellBg), 200);
-                            Toast.makeText(this, "❌ Mauvais chiffre", Toast.LENGTH_SHORT).show();
-                            score = Math.max(0, score - 5);
-                            updateScore();
-                        }
-                        return;
-                    }
+        if (selectedNumber != -1 && val == 0) {
+            int correct = solution[row][col];
 
-                    if (selectedCell == tvRef) {
-                        tvRef.setBackgroundColor(emptyCellBg);
-                        selectedCell = null;
-                        highlightedNumber = -1;
-                    } else {
-                        if (selectedCell != null) {
-                            selectedCell.setBackgroundColor(emptyCellBg);
-                        }
-                        selectedCell = tvRef;
-                        // Couleur de sélection : on peut utiliser Corail avec un peu de transparence
-                        tvRef.setBackgroundColor(Color.parseColor("#4DEB6851"));
-
-                        if (!val.isEmpty()) {
-                            int num = Integer.parseInt(val);
-                            highlightedNumber = (highlightedNumber == num) ? -1 : num;
-                        } else {
-                            highlightedNumber = -1;
-                        }
-                    }
-                    highlightNumbers();
-                });
+            if (selectedNumber == correct) {
+                game.set(row, col, selectedNumber);
+                grid.onCellChanged(index);
+                score += 10;
+                logMove(index, selectedNumber, MoveJournal.PLACED);
+                updateScore();
+                checkWin();
 
-                grid.addView(tv);
+                grid.flashCell(index, ThemePalette.get(this).cellGood, 200);
+                updatePaletteState();
+            } else {
+                grid.flashCell(index, ThemePalette.get(this).cellNotGood, 200);
+                Toast.makeText(this, "❌ Mauvais chiffre", Toast.LENGTH_SHORT).show();
+                score = Math.max(0, score - 5);
+                logMove(index, selectedNumber, MoveJournal.WRONG);
+                updateScore();
             }
+            return;
         }
-        highlightNumbers();
-    }
 
+        if (grid.getSelectedCell() == index) {
+            grid.setSelectedCell(-1);
+            grid.setHighlightedNumber(-1);
+        } else {
+            grid.setSelectedCell(index);
 
-    private void highlightNumbers() {
-        // On récupère la couleur d'accent (Corail en mode App, ou ta couleur record d'habitude)
-        int highlightColor = getAdaptiveColor(true);
-        int normalColor = getAdaptiveColor(false);
-
-        for (int i = 0; i < grid.getChildCount(); i++) {
-            TextView tv = (TextView) grid.getChildAt(i);
-            CellTag tag = (CellTag) tv.getTag();
-            String s = tv.getText().toString();
-
-            if (!s.isEmpty() && tag != null) {
-                int num = Integer.parseInt(s);
-                if (highlightedNumber != -1 && num == highlightedNumber) {
-                    // Applique le Corail (ou couleur accent)
-                    tv.setTextColor(highlightColor);
-                } else {
-                    // Remet la couleur normale (Rose pâle ou Primary)
-                    if (tag.fixed) {
-                        tv.setTextColor(normalColor);
-                    } else {
-                        tv.setTextColor(Color.DKGRAY);
-                    }
-                }
+            if (val != 0) {
+                grid.setHighlightedNumber(grid.getHighlightedNumber() == val ? -1 : val);
+            } else {
+                grid.setHighlightedNumber(-1);
             }
         }
     }
 
-
-
-    private int getColorOrFallback(int resId, int fallbackResId) {
-        try {
-            return getColor(resId);
-        } catch (Exception e) {
-            return getColor(fallbackResId);
-        }
+    private void highlightNumbers() {
+        // Les couleurs normales / d'accent sont déjà dans la vue : il suffit de redessiner
+        grid.invalidate();
     }
 
-
-
     private void buildPalette() {
+        ThemePalette theme = ThemePalette.get(this);
         palette.removeAllViews();
         for (int n = 1; n <= 9; n++) {
             TextView tv = new TextView(this);
@@ -489,12 +573,7 @@ public class MainActivity extends AppCompatActivity {
                 pad = dp(8);
             }
             tv.setPadding(pad, pad, pad, pad);
-            SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-            if (prefs.getInt("theme_mode", 3) == 3) {
-                tv.setBackgroundResource(R.drawable.bg_palette_number_default_theme);
-            }else{
-                tv.setBackgroundResource(R.drawable.bg_palette_number);
-            }
+            tv.setBackgroundResource(theme.paletteNumberBg);
 
             final int number = n;
             tv.setLongClickable(true);
@@ -511,45 +590,29 @@ public class MainActivity extends AppCompatActivity {
                 // Si on clique sur le même chiffre déjà sélectionné → on désélectionne
                 if (selectedNumber == clickedNumber) {
                     if (selectedNumberView != null) {
-                        if (prefs.getInt("theme_mode", 3) == 3) {
-                            selectedNumberView.setBackgroundResource(R.drawable.bg_palette_number_default_theme);
-                        }else{
-                            selectedNumberView.setBackgroundResource(R.drawable.bg_palette_number);
-                        }
+                        selectedNumberView.setBackgroundResource(ThemePalette.get(this).paletteNumberBg);
                     }
                     selectedNumber = -1;
                     selectedNumberView = null;
 
                     // Supprime le surlignage dans la grille
-                    highlightedNumber = -1;
-                    highlightNumbers();
+                    grid.setHighlightedNumber(-1);
                     return;
                 }
 
                 // Si un autre chiffre était sélectionné → on réinitialise
                 if (selectedNumberView != null) {
-                    if (prefs.getInt("theme_mode", 3) == 3) {
-                        selectedNumberView.setBackgroundResource(R.drawable.bg_palette_number_default_theme);
-                    }else{
-                        selectedNumberView.setBackgroundResource(R.drawable.bg_palette_number);
-                    }
-
+                    selectedNumberView.setBackgroundResource(ThemePalette.get(this).paletteNumberBg);
                 }
 
                 // Nouveau chiffre sélectionné
                 selectedNumber = clickedNumber;
                 selectedNumberView = tv;
-                tv.setBackgroundResource(R.drawable.bg_palette_number_selected);
-                if (prefs.getInt("theme_mode", 3) == 3) {
-                    tv.setBackgroundResource(R.drawable.bg_palette_number_default_theme_selected);
-                }else{
-                    tv.setBackgroundResource(R.drawable.bg_palette_number_selected);
-                }
+                tv.setBackgroundResource(ThemePalette.get(this).paletteNumberSelectedBg);
 
 
                 // Colorer toutes les cases de la grille qui contiennent ce chiffre
-                highlightedNumber = clickedNumber;
-                highlightNumbers();
+                grid.setHighlightedNumber(clickedNumber);
             });
 
 
@@ -560,12 +623,9 @@ public class MainActivity extends AppCompatActivity {
         grid.setOnDragListener(globalGridDragListener);
     }
 
-    private TextView lastHoverCell = null;
-
     private final View.OnDragListener globalGridDragListener = (v, event) -> {
-        final int bgCell = getColor(R.color.bg_cell_empty);
-        final int bgCellGood = getColor(R.color.bg_cell_good);
-        final int bgCellNotGood = getColor(R.color.bg_cell_not_good);
+        final int bgCellGood = ThemePalette.get(this).cellGood;
+        final int bgCellNotGood = ThemePalette.get(this).cellNotGood;
 
         float shadowOffsetY = dp(-25); // -50 même offset que dans NumberDragShadowBuilder
         float shadowOffsetX = dp(0);
@@ -583,28 +643,18 @@ public class MainActivity extends AppCompatActivity {
                 return true;
 
             case DragEvent.ACTION_DRAG_LOCATION: {
-                TextView hoverCell = findCellUnder(x, y);
-                if (hoverCell != null && hoverCell != lastHoverCell) {
-                    CellTag ht = (CellTag) hoverCell.getTag();
-                    boolean editable = (ht != null && !ht.fixed);
-                    if (editable) {
-                        if (lastHoverCell != null) lastHoverCell.setBackgroundColor(bgCell);
-                        hoverCell.setBackgroundColor(Color.LTGRAY);
-                        lastHoverCell = hoverCell;
-                    }
-                }
+                int hoverCell = findCellUnder(x, y);
+                // Seules les cases vides réagissent au survol
+                if (game.get(hoverCell / 9, hoverCell % 9) == 0) grid.setHoverCell(hoverCell);
                 break;
             }
 
             case DragEvent.ACTION_DRAG_EXITED:
-                if (lastHoverCell != null) {
-                    lastHoverCell.setBackgroundColor(bgCell);
-                    lastHoverCell = null;
-                }
+                grid.setHoverCell(-1);
                 break;
 
             case DragEvent.ACTION_DROP: {
-                if (lastHoverCell != null) lastHoverCell.setBackgroundColor(bgCell);
+                grid.setHoverCell(-1);
 
                 if (event.getClipData() == null || event.getClipData().getItemCount() == 0) return false;
                 CharSequence clip = event.getClipData().getItemAt(0).getText();
@@ -617,44 +667,36 @@ public class MainActivity extends AppCompatActivity {
                     return false;
                 }
 
-                TextView targetCell = findCellUnder(x, y);
-                if (targetCell != null) {
-                    CellTag tag = (CellTag) targetCell.getTag();
-                    boolean editable = (tag != null && !tag.fixed);
-                    if (editable) {
-                        int correct = solution[tag.r][tag.c];
-
-                        if (number == correct) {
-                            targetCell.setText(String.valueOf(number));
-                            tag.fixed = true; // ✅ la case devient "fixée" après validation
-                            targetCell.setBackgroundColor(bgCellGood);
-                            score += 10;
-                            statusText.setText("✔ Correct !");
-                            updateScore();
-                            checkWin();
-                            targetCell.postDelayed(() -> targetCell.setBackgroundColor(bgCell), 350);
-
-                            puzzle[tag.r][tag.c] = number;
-                            highlightNumbers();
-                            updatePaletteState();
-                        } else {
-                            targetCell.setBackgroundColor(bgCellNotGood);
-                            targetCell.postDelayed(() -> targetCell.setBackgroundColor(bgCell), 350);
-                            score = Math.max(0, score - 5);
-                            Toast.makeText(this, "❌ Mauvais chiffre", Toast.LENGTH_SHORT).show();
-                            updateScore();
-                        }
+                int target = findCellUnder(x, y);
+                int row = target / 9;
+                int col = target % 9;
+                if (game.get(row, col) == 0) {
+                    int correct = solution[row][col];
+
+                    if (number == correct) {
+                        grid.flashCell(target, bgCellGood, 350);
+                        score += 10;
+                        statusText.setText("✔ Correct !");
+                        game.set(row, col, number); // ✅ la case devient "fixée" après validation
+                        grid.onCellChanged(target);
+                        logMove(target, number, MoveJournal.PLACED);
+                        updateScore();
+                        checkWin();
+
+                        updatePaletteState();
+                    } else {
+                        grid.flashCell(target, bgCellNotGood, 350);
+                        score = Math.max(0, score - 5);
+                        Toast.makeText(this, "❌ Mauvais chiffre", Toast.LENGTH_SHORT).show();
+                        logMove(target, number, MoveJournal.WRONG);
+                        updateScore();
                     }
                 }
-                lastHoverCell = null;
                 break;
             }
 
             case DragEvent.ACTION_DRAG_ENDED:
-                if (lastHoverCell != null) {
-                    lastHoverCell.setBackgroundColor(bgCell);
-                    lastHoverCell = null;
-                }
+                grid.setHoverCell(-1);
                 break;
         }
         return true;
@@ -663,62 +705,47 @@ public class MainActivity extends AppCompatActivity {
 
 
     // Fonction utilitaire pour trouver la cellule sous des coordonnées x, y
-    private TextView findCellUnder(float x, float yFinger) {
-        // Limiter x dans la grille
-        x = Math.max(0, Math.min(x, grid.getWidth() - 1));
-
-        // Trouver la colonne correspondant à x
-        int col = 0;
-        for (int c = 0; c < 9; c++) {
-            TextView cell = (TextView) grid.getChildAt(c); // cast
-            if (x >= cell.getLeft() && x <= cell.getRight()) {
-                col = c;
-                break;
-            }
-        }
-
-        // Calculer la ligne selon la position réelle du doigt
-        float rowHeight = (float) grid.getHeight() / 9;
-        int row = (int)(yFinger / rowHeight);
-
-        // Accrocher première ou dernière ligne si hors de la grille
-        if (row < 0) row = 0;
-        if (row > 8) row = 8;
-
-        return (TextView) grid.getChildAt(row * 9 + col);
+    private int findCellUnder(float x, float y) {
+        return grid.cellAt(x, y);
     }
 
 
     private void updateScore() {
         scoreText.setText("Score: " + score);
+        saveSnapshot(); // appelé après chaque coup et chaque indice
+    }
+
+    // Photo de la partie écrite en arrière-plan (fichier temporaire + renommage)
+    private void saveSnapshot() {
+        if (game == null || game.isSolved()) return;
+        SnapshotStore.getInstance().save(GameSnapshot.of(game, score, seconds, helpActivate, mistakes, level));
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        saveSnapshot(); // garde aussi le temps écoulé depuis le dernier coup
+        if (journal != null) journal.flush();
     }
 
     private void checkWin() {
-        for (int i = 0; i < grid.getChildCount(); i++) {
-            TextView child = (TextView) grid.getChildAt(i);
-            CellTag tag = (CellTag) child.getTag();
-            int expected = solution[tag.r][tag.c];
-            String s = child.getText().toString();
-            int value = s.isEmpty() ? 0 : Integer.parseInt(s);
-            if (value != expected) return;
-        }
+        if (!game.isSolved()) return;
 
         int timeBonus = Math.max(0, 1800 - seconds);
         int finalScore = score + timeBonus;
 
         if(helpActivate) finalScore = finalScore /2;
 
-        if (finalScore > bestScore || (finalScore == bestScore && seconds < bestTime)) {
-            bestScore = finalScore;
-            bestTime = seconds;
-            String difficulty = getIntent().getStringExtra("difficulty");
-            if (difficulty == null) difficulty = "normal";
-            saveRecord(difficulty);
+        // Chaque partie gagnée entre dans l'historique ; le record en découle
+        if (GameRecords.get(this).add(level, finalScore, seconds, helpActivate, mistakes)) {
+            loadRecord();
             updateRecordText();
             Toast.makeText(this, "🎖 Nouveau record !", Toast.LENGTH_LONG).show();
         }
 
         score = finalScore;
+        SnapshotStore.getInstance().clear(); // plus rien à reprendre
+        if (journal != null) journal.delete();
 
         statusText.setText("🎉 Sudoku terminé !");
         if (timer != null) timer.cancel();
@@ -726,8 +753,6 @@ public class MainActivity extends AppCompatActivity {
         checkAndUnlockExtremeMode();
 
         checkWinAnimation();
-
-        //grid.postDelayed(this::resetGame, 2500);
     }
 
     private void checkWinAnimation() {
@@ -735,19 +760,16 @@ public class MainActivity extends AppCompatActivity {
 
 
 
-        int bg_end = getColor(R.color.bg_palette);
-        int text_color_end = getColor(R.color.text_record);
-
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        if (prefs.getInt("theme_mode", 3) == 3) {
-            bg_end = Color.parseColor("#4261B1");
-        }
+        ThemePalette theme = ThemePalette.get(this);
+        int bg_end = theme.endBg;
+        int text_color_end = theme.endText;
+        int fireworkColor = theme.fireworkColor;
 
         // Message central
         TextView congrats = new TextView(this);
         congrats.setText("🎉 Félicitations ! 🎉\nVotre Score: " + score);
         congrats.setBackgroundColor(bg_end);
-        congrats.setBackgroundColor(Color.argb(180, Color.red(bg_end), Color.green(bg_end), Color.blue(bg_end)));
+        congrats.setBackgroundColor(ThemePalette.withAlpha(bg_end, 180));
         congrats.setTextSize(32f);
         congrats.setTypeface(Typeface.DEFAULT_BOLD);
         congrats.setTextColor(text_color_end);
@@ -759,86 +781,19 @@ public class MainActivity extends AppCompatActivity {
         congrats.setLayoutParams(msgParams);
         root.addView(congrats);
 
-        // Overlay pour les explosions
-        FrameLayout overlay = new FrameLayout(this);
+        // Overlay pour les explosions : une seule vue, particules préallouées
+        FireworksView overlay = new FireworksView(this);
         overlay.setLayoutParams(new FrameLayout.LayoutParams(
                 ViewGroup.LayoutParams.MATCH_PARENT,
                 ViewGroup.LayoutParams.MATCH_PARENT
         ));
+        overlay.setColor(fireworkColor);
         root.addView(overlay);
-
-        int screenW = root.getWidth();
-        int screenH = root.getHeight();
-
-        AtomicBoolean fireworkRunning = new AtomicBoolean(true);
-
-        // Runnable pour générer des explosions
-        Runnable fireworkRunnable = new Runnable() {
-            Random random = new Random();
-
-            @Override
-            public void run() {
-                if (!fireworkRunning.get()) return;
-
-                int numExplosions = 3 + random.nextInt(3);
-                for (int e = 0; e < numExplosions; e++) {
-                    float centerX = random.nextInt(screenW);
-                    float centerY = random.nextInt(screenH);
-
-                    int numDigits = 20 + random.nextInt(21);
-                    for (int i = 0; i < numDigits; i++) {
-                        TextView tv = new TextView(MainActivity.this);
-                        int n = 1 + random.nextInt(9);
-                        tv.setText(String.valueOf(n));
-
-                        float size = 16 + random.nextFloat() * 24;
-                        tv.setTextSize(size);
-                        tv.setTypeface(Typeface.DEFAULT_BOLD);
-
-                        int alpha = 100 + random.nextInt(156);
-                        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-                        if (prefs.getInt("theme_mode", 3) == 3) {
-                            tv.setTextColor(Color.argb(alpha,
-                                    Color.red(Color.parseColor("#244393")),
-                                    Color.green(Color.parseColor("#244393")),
-                                    Color.blue(Color.parseColor("#244393")))
-                            );
-                        }else{
-                            tv.setTextColor(Color.argb(alpha,
-                                    Color.red(getColor(R.color.text_primary)),
-                                    Color.green(getColor(R.color.text_primary)),
-                                    Color.blue(getColor(R.color.text_primary))
-                            ));
-                        }
-
-                        tv.setX(centerX);
-                        tv.setY(centerY);
-                        overlay.addView(tv);
-
-                        double angle = random.nextDouble() * 2 * Math.PI;
-                        float distance = 300 + random.nextFloat() * 300;
-                        float endX = centerX + (float) (Math.cos(angle) * distance);
-                        float endY = centerY + (float) (Math.sin(angle) * distance);
-                        long duration = 1000 + random.nextInt(1000);
-
-                        tv.animate()
-                                .x(endX)
-                                .y(endY)
-                                .setDuration(duration)
-                                .withEndAction(() -> overlay.removeView(tv))
-                                .start();
-                    }
-                }
-
-                overlay.postDelayed(this, 500);
-            }
-        };
-
-        overlay.post(fireworkRunnable);
+        overlay.start();
 
         // Clic pour retourner au menu principal
         overlay.setOnClickListener(v -> {
-            fireworkRunning.set(false); // stop le feu d'artifice
+            overlay.stop(); // stop le feu d'artifice
             root.removeView(congrats);
             root.removeView(overlay);
 
@@ -849,31 +804,11 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private void resetGame() {
-        SudokuGenerator generator = new SudokuGenerator();
-        solution = generator.generateSolution();
-        puzzle = generator.generatePuzzle(solution, 35);
-        score = 0;
-        seconds = 0;
-        updateScore();
-        statusText.setText("Place un chiffre !");
-        buildGrid();
-        applyTheme();
-        startTimer();
-    }
-
     private int dp(int value) {
         float d = getResources().getDisplayMetrics().density;
         return Math.round(value * d);
     }
 
-    static class CellTag {
-        int r, c;
-        boolean fixed; // true = cellule pré-remplie (non éditable)
-
-        CellTag(int r, int c, boolean fixed) { this.r = r; this.c = c; this.fixed = fixed; }
-    }
-
     static class NumberDragShadowBuilder extends View.DragShadowBuilder {
         private final TextView shadowView;
 
@@ -916,18 +851,10 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void loadRecord(String difficulty) {
-        var prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        bestScore = prefs.getInt("bestScore_" + difficulty, 0);
-        bestTime = prefs.getInt("bestTime_" + difficulty, Integer.MAX_VALUE);
-    }
-
-    private void saveRecord(String difficulty) {
-        var prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        var editor = prefs.edit();
-        editor.putInt("bestScore_" + difficulty, bestScore);
-        editor.putInt("bestTime_" + difficulty, bestTime);
-        editor.apply();
+    private void loadRecord() {
+        RecordsStore.Stats stats = GameRecords.get(this).stats(level);
+        bestScore = stats.getBestScore();
+        bestTime = stats.getBestTime();
     }
 
     private void updateRecordText() {
@@ -940,85 +867,33 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private int getAdaptiveColor(boolean isAccent) {
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        int theme = prefs.getInt("theme_mode", 3); // 3 = Thème App par défaut
-
-        if (theme == 3) {
-            // COULEURS DU THÈME PAR DÉFAUT (Ton design)
-            return isAccent ? Color.parseColor("#ed6851") : Color.parseColor("#f4d7d3");
-        } else {
-            // COULEURS DU SYSTÈME (Android standard)
-            return isAccent ? ContextCompat.getColor(this, R.color.text_record)
-                    : ContextCompat.getColor(this, R.color.text_primary);
-        }
-    }
     private void applyTheme() {
-        int bgPrimary = getColor(R.color.bg_primary);
-        int bgGrid = getColor(R.color.bg_grid);
-        int bgCell = getColor(R.color.bg_cell_empty);
-        int bgPalette = getColor(R.color.bg_palette);
-        int textPrimary = getColor(R.color.text_primary);
-        int textPalette = getColor(R.color.text_palette);
-        int textRecord = getColor(R.color.text_record);
-
-
-        // 3. APPLIQUER LES COULEURS DU THÈME PAR DÉFAUT (Bleu)
-        SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-        if (prefs.getInt("theme_mode", 3) == 3) {
-            bgPrimary = Color.parseColor("#244393");
-            bgGrid = Color.parseColor("#4261B1");
-            //bgGrid = Color.parseColor("#244393");
-            bgCell = Color.parseColor("#244393");
-            //bgCell = Color.parseColor("#4261B1");
-            bgPalette = Color.parseColor("#4261B1");
-            textPrimary = Color.parseColor("#f4d7d3");
-            textPalette = Color.parseColor("#f4d7d3");
-            textRecord = Color.parseColor("#f4d7d3");
-
-        }
+        // Couleurs résolues une fois par thème (voir ThemePalette)
+        ThemePalette theme = ThemePalette.get(this);
 
         // Fond général
-        grid.setBackgroundColor(bgGrid);
-        statusText.setTextColor(textPrimary);
-        scoreText.setTextColor(textPrimary);
-        timerText.setTextColor(textPrimary);
-        recordText.setTextColor(textRecord);
-
-        // Cases de la grille
-        for (int i = 0; i < grid.getChildCount(); i++) {
-            View child = grid.getChildAt(i);
-            if (child instanceof TextView) {
-                TextView tv = (TextView) child;
-                tv.setBackgroundColor(bgCell);
-                tv.setTextColor(textPrimary);
-            }
-        }
+        grid.setColors(theme.bgGrid, theme.bgCell, theme.textPrimary, theme.accent);
+        statusText.setTextColor(theme.textPrimary);
+        scoreText.setTextColor(theme.textPrimary);
+        timerText.setTextColor(theme.textPrimary);
+        undoText.setTextColor(theme.textPrimary);
+        redoText.setTextColor(theme.textPrimary);
+        recordText.setTextColor(theme.textRecord);
 
         // Palette
         for (int i = 0; i < palette.getChildCount(); i++) {
             TextView tv = (TextView) palette.getChildAt(i);
-            if (prefs.getInt("theme_mode", 3) == 3) {
-                tv.setBackgroundResource(R.drawable.bg_palette_number_default_theme);
-            }else{
-                tv.setBackgroundResource(R.drawable.bg_palette_number);
-            }
-            tv.setTextColor(textPalette);
+            tv.setBackgroundResource(theme.paletteNumberBg);
+            tv.setTextColor(theme.textPalette);
         }
     }
 
     private void updatePaletteState() {
+        ThemePalette theme = ThemePalette.get(this);
         for (int n = 1; n <= 9; n++) {
-            int count = 0;
-            for (int i = 0; i < grid.getChildCount(); i++) {
-                TextView tv = (TextView) grid.getChildAt(i);
-                String s = tv.getText().toString();
-                if (s.equals(String.valueOf(n))) count++;
-            }
-
             TextView paletteBtn = (TextView) palette.getChildAt(n - 1);
 
-            if (count >= 9) {
+            if (game.isDigitComplete(n)) {
                 // ✅ Tous les chiffres placés → griser et désactiver
                 paletteBtn.setEnabled(false);
                 paletteBtn.setAlpha(0.4f);
@@ -1027,31 +902,19 @@ public class MainActivity extends AppCompatActivity {
                 // 🔁 Encore des cases disponibles → réactiver si besoin
                 paletteBtn.setEnabled(true);
                 paletteBtn.setAlpha(1f);
-                SharedPreferences prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
-                if (paletteBtn == selectedNumberView) {
-                    if (prefs.getInt("theme_mode", 3) == 3) {
-                        paletteBtn.setBackgroundResource(R.drawable.bg_palette_number_default_theme_selected);
-                    }else{
-                        paletteBtn.setBackgroundResource(R.drawable.bg_palette_number_selected);
-                    }
-                } else {
-                    if (prefs.getInt("theme_mode", 3) == 3) {
-                        paletteBtn.setBackgroundResource(R.drawable.bg_palette_number_default_theme);
-                    }else{
-                        paletteBtn.setBackgroundResource(R.drawable.bg_palette_number);
-                    }
-                }
+                paletteBtn.setBackgroundResource(paletteBtn == selectedNumberView
+                        ? theme.paletteNumberSelectedBg : theme.paletteNumberBg);
             }
         }
     }
 
     private boolean isExtremeModeConditionMet() {
-        var prefs = getSharedPreferences("SudokuPrefs", MODE_PRIVATE);
+        RecordsStore records = GameRecords.get(this);
 
-        // 1. Charger le meilleur score de chaque niveau
-        int bestEasy = prefs.getInt("bestScore_easy", 0);
-        int bestNormal = prefs.getInt("bestScore_normal", 0);
-        int bestHard = prefs.getInt("bestScore_hard", 0);
+        // 1. Meilleur score de chaque niveau (tenu à jour par le RecordsStore)
+        int bestEasy = records.stats(Difficulty.EASY).getBestScore();
+        int bestNormal = records.stats(Difficulty.NORMAL).getBestScore();
+        int bestHard = records.stats(Difficulty.HARD).getBestScore();
 
         if(bestEasy  > 2000 && bestHard  > 2000 && bestNormal > 2000) return true;
         return false;
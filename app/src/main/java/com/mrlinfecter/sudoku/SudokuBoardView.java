@@ -0,0 +1,311 @@
+package com.mrlinfecter.sudoku;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.graphics.Typeface;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.mrlinfecter.sudoku.core.GameState;
+
+import java.util.Arrays;
+
+/**
+ * Grille de sudoku dessinée en une seule passe (remplace les 81 TextView du GridLayout).
+ * La vue ne fait que rendre l'état de la partie : chiffres lus dans le GameState,
+ * sélection, surlignage, survol du glisser-déposer et flashs bon / mauvais chiffre.
+ * En mode notes, chaque case vide affiche ses candidats en petit (3x3), lus dans la
+ * table de candidats du GameState.
+ * Chaque case est enregistrée dans son propre RenderNode : un changement ne réenregistre
+ * que cette case (plus sa ligne, sa colonne et son bloc quand les notes sont affichées),
+ * les autres sont rejouées telles quelles. Sans accélération matérielle, toute la grille
+ * est redessinée.
+ */
+public class SudokuBoardView extends View {
+
+    public interface OnCellClickListener {
+        void onCellClick(int row, int col);
+    }
+
+    private static final int SIZE = 9;
+    private static final int SELECTION_COLOR = Color.parseColor("#4DEB6851"); // Corail transparent
+    private static final int HOVER_COLOR = Color.LTGRAY;
+
+    private GameState game;
+    private OnCellClickListener listener;
+
+    // Couleurs du thème (fixées par l'activité)
+    private int borderColor = Color.BLACK;
+    private int cellColor = Color.WHITE;
+    private int textColor = Color.BLACK;
+    private int highlightColor = Color.RED;
+
+    private int selectedCell = -1;
+    private int hoverCell = -1;
+    private int highlightedNumber = -1;
+    private boolean pencilMarks = false;
+    private final int[] flashColors = new int[SIZE * SIZE]; // 0 = pas de flash
+
+    // Une liste d'affichage par case, réenregistrée seulement quand la case a changé
+    private final RenderNode[] cellNodes = new RenderNode[SIZE * SIZE];
+    private final boolean[] stale = new boolean[SIZE * SIZE];
+
+    // Géométrie recalculée à chaque changement de taille
+    private int thin, thick;
+    private CellGeometry geometry = new CellGeometry(0, 0, 0);
+    private float textOffset, markStep, markOffset;
+
+    private final Paint cellPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint markPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final char[] digitChars = new char[1];
+
+    public SudokuBoardView(Context context) {
+        super(context);
+        init();
+    }
+
+    public SudokuBoardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init();
+    }
+
+    public SudokuBoardView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init();
+    }
+
+    private void init() {
+        float density = getResources().getDisplayMetrics().density;
+        thin = Math.round(density);
+        thick = Math.round(4 * density);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        markPaint.setTextAlign(Paint.Align.CENTER);
+        for (int i = 0; i < cellNodes.length; i++) cellNodes[i] = new RenderNode("cell" + i);
+        Arrays.fill(stale, true);
+        setClickable(true);
+    }
+
+    public void setGame(GameState game) {
+        this.game = game;
+        invalidateAll();
+    }
+
+    public void setOnCellClickListener(OnCellClickListener listener) {
+        this.listener = listener;
+    }
+
+    public void setColors(int borderColor, int cellColor, int textColor, int highlightColor) {
+        this.borderColor = borderColor;
+        this.cellColor = cellColor;
+        this.textColor = textColor;
+        this.highlightColor = highlightColor;
+        markPaint.setColor((textColor & 0x00FFFFFF) | 0x99000000); // notes en plus discret
+        invalidateAll();
+    }
+
+    public int getSelectedCell() {
+        return selectedCell;
+    }
+
+    public void setSelectedCell(int index) {
+        if (index == selectedCell) return;
+        int old = selectedCell;
+        selectedCell = index;
+        invalidateCell(old);
+        invalidateCell(index);
+    }
+
+    public void setHoverCell(int index) {
+        if (index == hoverCell) return;
+        int old = hoverCell;
+        hoverCell = index;
+        invalidateCell(old);
+        invalidateCell(index);
+    }
+
+    public int getHighlightedNumber() {
+        return highlightedNumber;
+    }
+
+    // Le surlignage touche des cases dispersées : on réenregistre toute la grille
+    public void setHighlightedNumber(int number) {
+        if (number == highlightedNumber) return;
+        highlightedNumber = number;
+        invalidateAll();
+    }
+
+    public boolean isPencilMarks() {
+        return pencilMarks;
+    }
+
+    public void setPencilMarks(boolean enabled) {
+        if (enabled == pencilMarks) return;
+        pencilMarks = enabled;
+        invalidateAll();
+    }
+
+    // Colore brièvement le fond d'une case (bon / mauvais chiffre)
+    public void flashCell(int index, int color, long durationMs) {
+        flashColors[index] = color;
+        invalidateCell(index);
+        postDelayed(() -> {
+            if (flashColors[index] == color) {
+                flashColors[index] = 0;
+                invalidateCell(index);
+            }
+        }, durationMs);
+    }
+
+    // Une case a changé dans le modèle
+    public void invalidateCell(int index) {
+        if (index < 0) return;
+        stale[index] = true;
+        invalidate();
+    }
+
+    private void invalidateAll() {
+        Arrays.fill(stale, true);
+        invalidate();
+    }
+
+    // Un chiffre a été posé ou effacé : ses notes et celles de ses voisines changent.
+    // Le chiffre surligné ne bouge pas : pas besoin de tout réenregistrer derrière.
+    public void onCellChanged(int index) {
+        if (!pencilMarks) {
+            invalidateCell(index);
+            return;
+        }
+        int row = index / SIZE, col = index % SIZE;
+        int boxRow = row - row % 3, boxCol = col - col % 3;
+        // Ligne, colonne puis bloc
+        for (int i = 0; i < SIZE; i++) {
+            stale[row * SIZE + i] = true;
+            stale[i * SIZE + col] = true;
+            stale[(boxRow + i / 3) * SIZE + boxCol + i % 3] = true;
+        }
+        invalidate();
+    }
+
+    // Case sous le point (x, y) en pixels de la vue, bornée à la grille
+    public int cellAt(float x, float y) {
+        return geometry.cellAt(x, y);
+    }
+
+    @Override
+    protected void onMeasure(int widthSpec, int heightSpec) {
+        // Toujours un carré, le plus grand possible dans l'espace disponible
+        int width = MeasureSpec.getSize(widthSpec);
+        int height = MeasureSpec.getSize(heightSpec);
+        int size = MeasureSpec.getMode(heightSpec) == MeasureSpec.UNSPECIFIED ? width : Math.min(width, height);
+        setMeasuredDimension(size, size);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        geometry = new CellGeometry(Math.min(w, h), thin, thick);
+        float fontScale = getResources().getConfiguration().fontScale;
+        textPaint.setTextSize(geometry.cellSize * 0.45f * fontScale);
+        markPaint.setTextSize(geometry.cellSize * 0.25f * fontScale);
+
+        int cellSize = geometry.cellSize;
+        Paint.FontMetrics fm = textPaint.getFontMetrics();
+        textOffset = cellSize / 2f - (fm.ascent + fm.descent) / 2f;
+        fm = markPaint.getFontMetrics();
+        markStep = cellSize / 3f;
+        markOffset = markStep / 2f - (fm.ascent + fm.descent) / 2f;
+        for (int index = 0; index < cellNodes.length; index++) {
+            int left = geometry.left(index);
+            int top = geometry.top(index);
+            cellNodes[index].setPosition(left, top, left + cellSize, top + cellSize);
+        }
+        Arrays.fill(stale, true);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        // Le fond fait les bordures, les cases sont dessinées par-dessus
+        canvas.drawColor(borderColor);
+        if (geometry.cellSize == 0) return;
+
+        boolean hardware = canvas.isHardwareAccelerated();
+        for (int index = 0; index < SIZE * SIZE; index++) {
+            if (!hardware) {
+                drawCell(canvas, index, geometry.left(index), geometry.top(index));
+                continue;
+            }
+            RenderNode node = cellNodes[index];
+            if (stale[index] || !node.hasDisplayList()) {
+                // Coordonnées locales à la case : le RenderNode est déjà placé
+                RecordingCanvas recording = node.beginRecording();
+                try {
+                    drawCell(recording, index, 0, 0);
+                } finally {
+                    node.endRecording();
+                }
+                stale[index] = false;
+            }
+            canvas.drawRenderNode(node);
+        }
+    }
+
+    private void drawCell(Canvas canvas, int index, int left, int top) {
+        int cellSize = geometry.cellSize;
+        cellPaint.setColor(backgroundOf(index));
+        canvas.drawRect(left, top, left + cellSize, top + cellSize, cellPaint);
+
+        int value = game == null ? 0 : game.get(index / SIZE, index % SIZE);
+        if (value == 0) {
+            if (pencilMarks && game != null) drawMarks(canvas, index, left, top);
+            return;
+        }
+        textPaint.setColor(value == highlightedNumber ? highlightColor : textColor);
+        digitChars[0] = (char) ('0' + value);
+        canvas.drawText(digitChars, 0, 1, left + cellSize / 2f, top + textOffset, textPaint);
+    }
+
+    // Candidats de la case en 3x3 : 1 en haut à gauche, 9 en bas à droite
+    private void drawMarks(Canvas canvas, int index, int left, int top) {
+        int mask = game.candidates(index / SIZE, index % SIZE);
+        while (mask != 0) {
+            int d = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            digitChars[0] = (char) ('1' + d);
+            canvas.drawText(digitChars, 0, 1,
+                    left + (d % 3) * markStep + markStep / 2f, top + (d / 3) * markStep + markOffset, markPaint);
+        }
+    }
+
+    private int backgroundOf(int index) {
+        if (flashColors[index] != 0) return flashColors[index];
+        if (index == hoverCell) return HOVER_COLOR;
+        if (index == selectedCell) return SELECTION_COLOR;
+        return cellColor;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                return true;
+            case MotionEvent.ACTION_UP:
+                int index = cellAt(event.getX(), event.getY());
+                performClick();
+                if (listener != null) listener.onCellClick(index / SIZE, index % SIZE);
+                return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+}
@@ -0,0 +1,129 @@
+package com.mrlinfecter.sudoku;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.res.Configuration;
+import android.graphics.Color;
+
+import androidx.core.content.ContextCompat;
+
+/**
+ * Couleurs et fonds du thème courant, résolus une seule fois.
+ * Le cache est jeté quand "theme_mode" change dans SudokuPrefs (listener) ou quand
+ * le mode jour / nuit du contexte n'est plus le même : les chemins de rendu et
+ * d'animation ne lisent plus les préférences et ne parsent plus de couleurs.
+ */
+public final class ThemePalette {
+    public static final String PREFS = "SudokuPrefs";
+    public static final String KEY_THEME = "theme_mode";
+    public static final int THEME_APP = 3; // thème Bleu de l'appli (valeur par défaut)
+
+    // Couleurs fixes du thème Bleu
+    private static final int APP_BG = Color.rgb(0x33, 0x52, 0xA2);       // #3352a2
+    private static final int APP_DARK = Color.rgb(0x24, 0x43, 0x93);     // #244393
+    private static final int APP_LIGHT = Color.rgb(0x42, 0x61, 0xB1);    // #4261B1
+    private static final int APP_TEXT = Color.rgb(0xF4, 0xD7, 0xD3);     // #f4d7d3
+    private static final int APP_ACCENT = Color.rgb(0xED, 0x68, 0x51);   // #ed6851
+
+    private static ThemePalette cached;
+    private static boolean listening = false;
+    // Gardé en champ statique : SharedPreferences ne garde qu'une référence faible sur ses listeners
+    private static final SharedPreferences.OnSharedPreferenceChangeListener LISTENER = (prefs, key) -> {
+        if (KEY_THEME.equals(key)) cached = null;
+    };
+
+    public final int mode;
+    public final boolean appTheme;
+    private final int nightMode;
+
+    // Écrans
+    public final int screenBg;        // fond forcé en thème Bleu
+    public final int bgPrimary;
+    public final int bgGrid;
+    public final int bgCell;
+    public final int bgPalette;
+    public final int textPrimary;
+    public final int textPalette;
+    public final int textRecord;
+    public final int accent;          // chiffres surlignés, records de l'accueil
+    public final int textAccent;      // record du mode Extrême
+    public final int cellGood;
+    public final int cellNotGood;
+
+    // Animations
+    public final int rainColor;
+    public final int fireworkColor;
+    public final int endBg;
+    public final int endText;
+
+    // Fonds des boutons
+    public final int paletteNumberBg;
+    public final int paletteNumberSelectedBg;
+    public final int buttonBg;
+
+    public static ThemePalette get(Context context) {
+        ThemePalette palette = cached;
+        int night = context.getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK;
+        if (palette != null && palette.nightMode == night) return palette;
+
+        SharedPreferences prefs = context.getApplicationContext().getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        if (!listening) {
+            prefs.registerOnSharedPreferenceChangeListener(LISTENER);
+            listening = true;
+        }
+        palette = new ThemePalette(context, prefs.getInt(KEY_THEME, THEME_APP), night);
+        cached = palette;
+        return palette;
+    }
+
+    private ThemePalette(Context context, int mode, int nightMode) {
+        this.mode = mode;
+        this.appTheme = mode == THEME_APP;
+        this.nightMode = nightMode;
+
+        cellGood = ContextCompat.getColor(context, R.color.bg_cell_good);
+        cellNotGood = ContextCompat.getColor(context, R.color.bg_cell_not_good);
+        endText = ContextCompat.getColor(context, R.color.text_record);
+
+        if (appTheme) {
+            screenBg = APP_BG;
+            bgPrimary = APP_DARK;
+            bgGrid = APP_LIGHT;
+            bgCell = APP_DARK;
+            bgPalette = APP_LIGHT;
+            textPrimary = APP_TEXT;
+            textPalette = APP_TEXT;
+            textRecord = APP_TEXT;
+            accent = APP_ACCENT;
+            textAccent = APP_ACCENT;
+            rainColor = ContextCompat.getColor(context, R.color.app_default_text);
+            fireworkColor = APP_DARK;
+            endBg = APP_LIGHT;
+            paletteNumberBg = R.drawable.bg_palette_number_default_theme;
+            paletteNumberSelectedBg = R.drawable.bg_palette_number_default_theme_selected;
+            buttonBg = R.drawable.bg_button_default_theme;
+        } else {
+            screenBg = ContextCompat.getColor(context, R.color.bg_primary);
+            bgPrimary = screenBg;
+            bgGrid = ContextCompat.getColor(context, R.color.bg_grid);
+            bgCell = ContextCompat.getColor(context, R.color.bg_cell_empty);
+            bgPalette = ContextCompat.getColor(context, R.color.bg_palette);
+            textPrimary = ContextCompat.getColor(context, R.color.text_primary);
+            textPalette = ContextCompat.getColor(context, R.color.text_palette);
+            textRecord = ContextCompat.getColor(context, R.color.text_record);
+            accent = textRecord;
+            textAccent = ContextCompat.getColor(context, R.color.text_accent);
+            rainColor = textPrimary;
+            fireworkColor = textPrimary;
+            endBg = bgPalette;
+            paletteNumberBg = R.drawable.bg_palette_number;
+            paletteNumberSelectedBg = R.drawable.bg_palette_number_selected;
+            buttonBg = R.drawable.bg_palette_number;
+        }
+    }
+
+    // Même couleur avec une autre opacité (0..255), sans repasser par Color.argb
+    public static int withAlpha(int color, int alpha) {
+        return (alpha << 24) | (color & 0x00FFFFFF);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mrlinfecter.sudoku.benchmark;
+
+import com.mrlinfecter.sudoku.core.SudokuGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Génération de solutions et carving à 30/40/50/60 cases vides.
+ * Les graines sont fixes : deux exécutions mesurent exactement les mêmes grilles.
+ */
+@State(Scope.Thread)
+public class GeneratorBenchmark {
+    private static final int SEEDS = 64;
+
+    private SudokuGenerator generator;
+    private int next;
+
+    // Solutions précalculées pour ne mesurer que le carving
+    @State(Scope.Thread)
+    public static class Carving {
+        @Param({"30", "40", "50", "60"})
+        public int emptyCells;
+
+        int[][][] solutions;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SudokuGenerator generator = new SudokuGenerator();
+            solutions = new int[SEEDS][][];
+            for (int i = 0; i < SEEDS; i++) {
+                generator.setSeed(i);
+                solutions[i] = generator.generateSolution();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new SudokuGenerator();
+        next = 0;
+    }
+
+    @Benchmark
+    public int[][] generateSolution() {
+        generator.setSeed(next++ % SEEDS);
+        return generator.generateSolution();
+    }
+
+    @Benchmark
+    public int[][] generatePuzzle(Carving carving) {
+        int i = next++ % SEEDS;
+        generator.setSeed(i);
+        return generator.generatePuzzle(carving.solutions[i], carving.emptyCells);
+    }
+}
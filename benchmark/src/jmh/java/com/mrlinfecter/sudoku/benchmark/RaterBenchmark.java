@@ -0,0 +1,43 @@
+package com.mrlinfecter.sudoku.benchmark;
+
+import com.mrlinfecter.sudoku.core.DifficultyRater;
+import com.mrlinfecter.sudoku.core.SudokuGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Notation logique de grilles déjà générées : c'est ce qui limite le nombre de
+ * candidates examinées quand la réserve vise un niveau.
+ */
+@State(Scope.Thread)
+public class RaterBenchmark {
+    private static final int SEEDS = 64;
+
+    @Param({"40", "50", "60"})
+    public int emptyCells;
+
+    private DifficultyRater rater;
+    private int[][][] puzzles;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SudokuGenerator generator = new SudokuGenerator();
+        puzzles = new int[SEEDS][][];
+        for (int i = 0; i < SEEDS; i++) {
+            puzzles[i] = generator.generate(i, emptyCells).grid;
+        }
+        rater = new DifficultyRater();
+        next = 0;
+    }
+
+    @Benchmark
+    public DifficultyRater.Rating rate() {
+        return rater.rate(puzzles[next++ % SEEDS]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mrlinfecter.sudoku.benchmark;
+
+import com.mrlinfecter.sudoku.core.BacktrackingSolver;
+import com.mrlinfecter.sudoku.core.DancingLinksSolver;
+import com.mrlinfecter.sudoku.core.Puzzle;
+import com.mrlinfecter.sudoku.core.SudokuBoard;
+import com.mrlinfecter.sudoku.core.SudokuGenerator;
+import com.mrlinfecter.sudoku.core.SudokuSolver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * countSolutions(board, 2) sur des grilles générées avec des graines fixes,
+ * pour chaque moteur de résolution.
+ */
+@State(Scope.Thread)
+public class SolverBenchmark {
+    private static final int SEEDS = 32;
+
+    @Param({"dlx", "backtracking"})
+    public String solverName;
+
+    @Param({"40", "60"})
+    public int emptyCells;
+
+    private SudokuSolver solver;
+    private SudokuBoard[] boards;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solver = "dlx".equals(solverName) ? new DancingLinksSolver() : new BacktrackingSolver();
+        SudokuGenerator generator = new SudokuGenerator();
+        boards = new SudokuBoard[SEEDS];
+        for (int i = 0; i < SEEDS; i++) {
+            Puzzle puzzle = generator.generate(1000 + i, emptyCells);
+            boards[i] = new SudokuBoard(puzzle.grid);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int countSolutions() {
+        // Le solveur rend la grille intacte : on peut la réutiliser d'un appel à l'autre
+        return solver.countSolutions(boards[next++ % SEEDS], 2);
+    }
+}
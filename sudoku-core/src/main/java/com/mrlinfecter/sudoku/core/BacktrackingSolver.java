@@ -0,0 +1,173 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Recherche en profondeur sur les masques de la grille.
+ * À chaque nœud : propagation des singletons nus et cachés, puis branchement
+ * sur la case qui a le moins de candidats (MRV).
+ */
+public class BacktrackingSolver implements SudokuSolver {
+
+    // Pile des cases posées par la propagation, pour pouvoir les retirer au backtrack
+    private final int[] trail = new int[SudokuBoard.CELLS];
+    private int top = 0;
+    private long nodes = 0;
+
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        return countSolutions(board, 0, limit);
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    @Override
+    public void resetNodeCount() {
+        nodes = 0;
+    }
+
+    @Override
+    public SudokuSolver fork() {
+        return new BacktrackingSolver();
+    }
+
+    private int countSolutions(SudokuBoard board, int count, int limit) {
+        nodes++;
+        int mark = top;
+        if (!propagate(board)) {
+            undo(board, mark);
+            return count;
+        }
+
+        int index = mostConstrainedCell(board);
+        if (index < 0) {
+            undo(board, mark);
+            return count + 1; // Solution trouvée
+        }
+
+        int mask = board.candidates(index);
+        while (mask != 0) {
+            int bit = mask & -mask;
+            mask ^= bit;
+            board.place(index, Integer.numberOfTrailingZeros(bit) + 1);
+            count = countSolutions(board, count, limit);
+            board.unplace(index); // Backtrack
+            if (count >= limit) break;
+        }
+        undo(board, mark);
+        return count;
+    }
+
+    /**
+     * Complète la grille avec des chiffres tirés au hasard parmi les candidats.
+     * Renvoie false si la grille n'a pas de solution (elle est alors rendue intacte).
+     */
+    public boolean fill(SudokuBoard board, SplittableRandom rand) {
+        boolean filled = fillFrom(board, rand);
+        top = 0; // en cas de succès les cases propagées restent posées
+        return filled;
+    }
+
+    private boolean fillFrom(SudokuBoard board, SplittableRandom rand) {
+        nodes++;
+        int mark = top;
+        if (!propagate(board)) {
+            undo(board, mark);
+            return false;
+        }
+
+        int index = mostConstrainedCell(board);
+        if (index < 0) return true;
+
+        int mask = board.candidates(index);
+        while (mask != 0) {
+            int num = pickRandom(mask, rand);
+            mask &= ~(1 << (num - 1));
+            board.place(index, num);
+            if (fillFrom(board, rand)) return true;
+            board.unplace(index);
+        }
+        undo(board, mark);
+        return false;
+    }
+
+    private static int pickRandom(int mask, SplittableRandom rand) {
+        int k = rand.nextInt(Integer.bitCount(mask));
+        while (k-- > 0) mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask) + 1;
+    }
+
+    // Case vide avec le moins de candidats, -1 si la grille est pleine
+    private static int mostConstrainedCell(SudokuBoard board) {
+        int best = -1;
+        int bestCount = 10;
+        for (int index = 0; index < SudokuBoard.CELLS; index++) {
+            if (!board.isEmpty(index)) continue;
+            int n = Integer.bitCount(board.candidates(index));
+            if (n < bestCount) {
+                best = index;
+                bestCount = n;
+                if (n <= 1) break;
+            }
+        }
+        return best;
+    }
+
+    // Pose les singletons nus et cachés jusqu'au point fixe. false = contradiction.
+    private boolean propagate(SudokuBoard board) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // Singletons nus : un seul candidat dans la case
+            for (int index = 0; index < SudokuBoard.CELLS; index++) {
+                if (!board.isEmpty(index)) continue;
+                int mask = board.candidates(index);
+                if (mask == 0) return false;
+                if ((mask & (mask - 1)) == 0) {
+                    push(board, index, Integer.numberOfTrailingZeros(mask) + 1);
+                    changed = true;
+                }
+            }
+
+            // Singletons cachés : un chiffre qui n'a plus qu'une place dans l'unité
+            for (int[] unit : SudokuBoard.UNITS) {
+                int once = 0, twice = 0, placed = 0;
+                for (int index : unit) {
+                    if (board.isEmpty(index)) {
+                        int mask = board.candidates(index);
+                        twice |= once & mask;
+                        once |= mask;
+                    } else {
+                        placed |= 1 << (board.get(index) - 1);
+                    }
+                }
+                if ((once | placed) != SudokuBoard.ALL) return false; // un chiffre n'a plus de place
+
+                int hidden = once & ~twice;
+                if (hidden == 0) continue;
+                for (int index : unit) {
+                    if (!board.isEmpty(index)) continue;
+                    int mask = board.candidates(index) & hidden;
+                    if (mask == 0) continue;
+                    if ((mask & (mask - 1)) != 0) return false; // deux chiffres pour une seule case
+                    push(board, index, Integer.numberOfTrailingZeros(mask) + 1);
+                    changed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void push(SudokuBoard board, int index, int digit) {
+        board.place(index, digit);
+        trail[top++] = index;
+    }
+
+    private void undo(SudokuBoard board, int mark) {
+        while (top > mark) board.unplace(trail[--top]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.mrlinfecter.sudoku.core;
+
+/**
+ * Candidats des 81 cases tenus à jour coup par coup (masque 9 bits par case, bit d - 1).
+ * Poser ou effacer un chiffre ne recalcule que la case et ses 20 voisines ;
+ * lire les candidats d'une case ou de toute la grille ne coûte rien et n'alloue rien.
+ * Les doublons (mauvais chiffre posé par le joueur) sont gérés : on compte les
+ * occurrences de chaque chiffre par unité plutôt que de simples bits.
+ */
+public class CandidateTable {
+    private static final int SIZE = SudokuBoard.SIZE;
+
+    private final int[] cells = new int[SudokuBoard.CELLS];
+    private final int[] candidates = new int[SudokuBoard.CELLS];
+    // Occurrences par unité (27 unités x 9 chiffres) et masque des chiffres présents
+    private final int[] unitCounts = new int[3 * SIZE * SIZE];
+    private final int[] unitMasks = new int[3 * SIZE];
+
+    public CandidateTable(int[][] grid) {
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            int digit = grid[SudokuBoard.ROW[i]][SudokuBoard.COL[i]];
+            if (digit != 0) add(i, digit);
+        }
+        for (int i = 0; i < SudokuBoard.CELLS; i++) refresh(i);
+    }
+
+    /** Masque des chiffres encore possibles pour la case (0 si la case est remplie). */
+    public int get(int index) {
+        return candidates[index];
+    }
+
+    public int get(int row, int col) {
+        return candidates[row * SIZE + col];
+    }
+
+    public int count(int index) {
+        return Integer.bitCount(candidates[index]);
+    }
+
+    // Pose (ou efface avec 0) un chiffre
+    public void set(int index, int digit) {
+        int old = cells[index];
+        if (old == digit) return;
+        if (old != 0) remove(index, old);
+        if (digit != 0) add(index, digit);
+
+        refresh(index);
+        for (int peer : SudokuBoard.PEERS[index]) refresh(peer);
+    }
+
+    private void add(int index, int digit) {
+        cells[index] = digit;
+        int d = digit - 1;
+        increment(SudokuBoard.ROW[index], d);
+        increment(SIZE + SudokuBoard.COL[index], d);
+        increment(2 * SIZE + SudokuBoard.BOX[index], d);
+    }
+
+    private void remove(int index, int digit) {
+        cells[index] = 0;
+        int d = digit - 1;
+        decrement(SudokuBoard.ROW[index], d);
+        decrement(SIZE + SudokuBoard.COL[index], d);
+        decrement(2 * SIZE + SudokuBoard.BOX[index], d);
+    }
+
+    private void increment(int unit, int d) {
+        if (unitCounts[unit * SIZE + d]++ == 0) unitMasks[unit] |= 1 << d;
+    }
+
+    private void decrement(int unit, int d) {
+        if (--unitCounts[unit * SIZE + d] == 0) unitMasks[unit] &= ~(1 << d);
+    }
+
+    private void refresh(int index) {
+        if (cells[index] != 0) {
+            candidates[index] = 0;
+            return;
+        }
+        int used = unitMasks[SudokuBoard.ROW[index]]
+                | unitMasks[SIZE + SudokuBoard.COL[index]]
+                | unitMasks[2 * SIZE + SudokuBoard.BOX[index]];
+        candidates[index] = ~used & SudokuBoard.ALL;
+    }
+}
@@ -0,0 +1,160 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.util.Arrays;
+
+/**
+ * Algorithme X de Knuth (Dancing Links) sur la couverture exacte du sudoku.
+ * 324 contraintes (case, ligne/chiffre, colonne/chiffre, bloc/chiffre) et 729 options.
+ * La matrice est construite une seule fois puis recopiée à chaque appel ;
+ * tous les liens sont stockés dans des tableaux d'int (pas d'objets nœuds).
+ */
+public class DancingLinksSolver implements SudokuSolver {
+    private static final int COLUMNS = 4 * SudokuBoard.CELLS;   // 324
+    private static final int OPTIONS = SudokuBoard.CELLS * 9;   // 729
+    private static final int NODES = 1 + COLUMNS + 4 * OPTIONS; // racine + en-têtes + 4 nœuds par option
+
+    // Matrice de référence, partagée en lecture seule
+    private static final int[] BASE_L = new int[NODES];
+    private static final int[] BASE_R = new int[NODES];
+    private static final int[] BASE_U = new int[NODES];
+    private static final int[] BASE_D = new int[NODES];
+    private static final int[] BASE_S = new int[COLUMNS + 1];
+    private static final int[] COL_OF = new int[NODES];
+
+    static {
+        // En-têtes : 0 = racine, 1..324 = colonnes
+        for (int c = 0; c <= COLUMNS; c++) {
+            BASE_L[c] = c == 0 ? COLUMNS : c - 1;
+            BASE_R[c] = c == COLUMNS ? 0 : c + 1;
+            BASE_U[c] = c;
+            BASE_D[c] = c;
+            COL_OF[c] = c;
+        }
+        for (int option = 0; option < OPTIONS; option++) {
+            int cell = option / 9;
+            int d = option % 9;
+            int[] cols = {
+                    1 + cell,
+                    1 + 81 + SudokuBoard.ROW[cell] * 9 + d,
+                    1 + 162 + SudokuBoard.COL[cell] * 9 + d,
+                    1 + 243 + SudokuBoard.BOX[cell] * 9 + d
+            };
+            int first = firstNode(option);
+            for (int k = 0; k < 4; k++) {
+                int node = first + k;
+                int col = cols[k];
+                COL_OF[node] = col;
+                BASE_L[node] = first + (k + 3) % 4;
+                BASE_R[node] = first + (k + 1) % 4;
+                // Ajout en bas de la colonne
+                BASE_U[node] = BASE_U[col];
+                BASE_D[node] = col;
+                BASE_D[BASE_U[col]] = node;
+                BASE_U[col] = node;
+                BASE_S[col]++;
+            }
+        }
+    }
+
+    private static int firstNode(int option) {
+        return 1 + COLUMNS + 4 * option;
+    }
+
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    private final int[] size = new int[COLUMNS + 1];
+    private final boolean[] covered = new boolean[COLUMNS + 1];
+    private long nodes = 0;
+
+    @Override
+    public int countSolutions(SudokuBoard board, int limit) {
+        if (!reset(board)) return 0;
+        return search(0, limit);
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    @Override
+    public void resetNodeCount() {
+        nodes = 0;
+    }
+
+    @Override
+    public SudokuSolver fork() {
+        return new DancingLinksSolver();
+    }
+
+    // Recopie la matrice de référence et retire les options imposées par les chiffres déjà posés
+    private boolean reset(SudokuBoard board) {
+        System.arraycopy(BASE_L, 0, left, 0, NODES);
+        System.arraycopy(BASE_R, 0, right, 0, NODES);
+        System.arraycopy(BASE_U, 0, up, 0, NODES);
+        System.arraycopy(BASE_D, 0, down, 0, NODES);
+        System.arraycopy(BASE_S, 0, size, 0, COLUMNS + 1);
+        Arrays.fill(covered, false);
+
+        for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+            int digit = board.get(cell);
+            if (digit == 0) continue;
+            int first = firstNode(cell * 9 + digit - 1);
+            for (int k = 0; k < 4; k++) {
+                int col = COL_OF[first + k];
+                if (covered[col]) return false; // grille contradictoire
+                covered[col] = true;
+                cover(col);
+            }
+        }
+        return true;
+    }
+
+    private int search(int count, int limit) {
+        nodes++;
+        if (right[0] == 0) return count + 1; // toutes les contraintes sont couvertes
+
+        // Colonne la plus contrainte d'abord
+        int best = right[0];
+        for (int c = right[best]; c != 0; c = right[c]) {
+            if (size[c] < size[best]) best = c;
+        }
+        if (size[best] == 0) return count;
+
+        cover(best);
+        for (int r = down[best]; r != best; r = down[r]) {
+            for (int j = right[r]; j != r; j = right[j]) cover(COL_OF[j]);
+            count = search(count, limit);
+            for (int j = left[r]; j != r; j = left[j]) uncover(COL_OF[j]);
+            if (count >= limit) break;
+        }
+        uncover(best);
+        return count;
+    }
+
+    private void cover(int c) {
+        left[right[c]] = left[c];
+        right[left[c]] = right[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[COL_OF[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[COL_OF[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+        left[right[c]] = c;
+        right[left[c]] = c;
+    }
+}
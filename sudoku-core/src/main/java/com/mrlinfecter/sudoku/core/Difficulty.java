@@ -0,0 +1,24 @@
+package com.mrlinfecter.sudoku.core;
+
+// Niveaux de jeu : la clé est celle passée dans l'Intent et utilisée dans les préférences
+public enum Difficulty {
+    EASY("easy", 30),
+    NORMAL("normal", 40),
+    HARD("hard", 50),
+    EXTREME("extreme", 60);
+
+    public final String key;
+    public final int emptyCells;
+
+    Difficulty(String key, int emptyCells) {
+        this.key = key;
+        this.emptyCells = emptyCells;
+    }
+
+    public static Difficulty fromKey(String key) {
+        for (Difficulty d : values()) {
+            if (d.key.equals(key)) return d;
+        }
+        return NORMAL;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.util.Arrays;
+
+/**
+ * Note une grille comme un joueur la ressent : on la résout avec le HintEngine,
+ * technique par technique, et on retient la plus difficile utilisée et le nombre d'étapes.
+ * Une grille que les techniques connues ne suffisent pas à finir est classée au-dessus de tout.
+ * Une instance par thread (le HintEngine et les tampons sont réutilisés).
+ */
+public class DifficultyRater {
+
+    // Poids de chaque technique, dans l'ordre de HintEngine.Technique
+    private static final int[] WEIGHTS = {1, 2, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13};
+    private static final int STUCK_WEIGHT = 20;
+
+    /** Résultat de la notation. */
+    public static final class Rating {
+        public final HintEngine.Technique hardest; // null si la grille n'a demandé aucune étape
+        public final int steps;
+        public final boolean solved;               // false : il faut plus que les techniques connues
+        public final int score;
+
+        Rating(HintEngine.Technique hardest, int steps, boolean solved) {
+            this.hardest = hardest;
+            this.steps = steps;
+            this.solved = solved;
+            int weight = !solved ? STUCK_WEIGHT : hardest == null ? 0 : WEIGHTS[hardest.ordinal()];
+            // La technique la plus dure domine, le nombre d'étapes départage
+            this.score = weight * 100 + Math.min(steps, 99);
+        }
+
+        // Niveau correspondant à la technique la plus dure
+        public Difficulty difficulty() {
+            if (!solved) return Difficulty.EXTREME;
+            if (hardest == null || hardest.compareTo(HintEngine.Technique.NAKED_SINGLE) <= 0) return Difficulty.EASY;
+            if (hardest.compareTo(HintEngine.Technique.BOX_LINE) <= 0) return Difficulty.NORMAL;
+            if (hardest.compareTo(HintEngine.Technique.HIDDEN_TRIPLE) <= 0) return Difficulty.HARD;
+            return Difficulty.EXTREME;
+        }
+    }
+
+    private final HintEngine engine = new HintEngine();
+    private final int[] candidates = new int[SudokuBoard.CELLS];
+    private final int[] unitMasks = new int[3 * SudokuBoard.SIZE];
+
+    public Rating rate(int[][] grid) {
+        // Candidats de départ à partir des masques de ligne / colonne / bloc
+        Arrays.fill(unitMasks, 0);
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            int value = grid[SudokuBoard.ROW[i]][SudokuBoard.COL[i]];
+            if (value == 0) continue;
+            int bit = 1 << (value - 1);
+            unitMasks[SudokuBoard.ROW[i]] |= bit;
+            unitMasks[SudokuBoard.SIZE + SudokuBoard.COL[i]] |= bit;
+            unitMasks[2 * SudokuBoard.SIZE + SudokuBoard.BOX[i]] |= bit;
+        }
+        int empty = 0;
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            if (grid[SudokuBoard.ROW[i]][SudokuBoard.COL[i]] != 0) {
+                candidates[i] = 0;
+                continue;
+            }
+            empty++;
+            int used = unitMasks[SudokuBoard.ROW[i]]
+                    | unitMasks[SudokuBoard.SIZE + SudokuBoard.COL[i]]
+                    | unitMasks[2 * SudokuBoard.SIZE + SudokuBoard.BOX[i]];
+            candidates[i] = ~used & SudokuBoard.ALL;
+        }
+
+        HintEngine.Technique hardest = null;
+        int steps = 0;
+        HintEngine.Hint hint;
+        while (empty > 0 && (hint = engine.find(candidates)) != null) {
+            if (hardest == null || hint.technique.compareTo(hardest) > 0) hardest = hint.technique;
+            if (hint.isPlacement()) empty--;
+            HintEngine.apply(hint, candidates);
+            steps++;
+        }
+        return new Rating(hardest, steps, empty == 0);
+    }
+}
@@ -0,0 +1,174 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Photo d'une partie en cours, assez petite pour être réécrite à chaque coup.
+ *
+ * Format (113 octets, big-endian) :
+ *  - magic "SDKS" (int), version (byte), difficulté (byte, 0xFF si inconnue),
+ *    drapeaux (byte, bit 0 = aide activée), erreurs (byte, plafonné à 255) ;
+ *  - score (int), temps en secondes (int) ;
+ *  - 41 octets : grille du joueur, un chiffre par demi-octet ;
+ *  - 41 octets : solution, un chiffre par demi-octet ;
+ *  - 11 octets : bitmap des cases de départ ;
+ *  - CRC32 de tout ce qui précède (int) : un fichier abîmé est ignoré, jamais chargé à moitié.
+ */
+public final class GameSnapshot {
+    private static final int MAGIC = 0x53444B53; // "SDKS"
+    private static final byte VERSION = 1;
+    private static final int NO_DIFFICULTY = 0xFF;
+    private static final int FLAG_HELP = 1;
+    static final int SIZE = 4 + 4 + 4 + 4
+            + PuzzleStore.DIGITS_SIZE + PuzzleStore.DIGITS_SIZE + PuzzleStore.CLUES_SIZE + 4; // 113
+
+    public final int[][] grid;
+    public final int[][] solution;
+    public final boolean[] given;
+    public final int score;
+    public final int seconds;
+    public final boolean help;
+    public final int mistakes;
+    public final Difficulty difficulty; // null si inconnue
+
+    public GameSnapshot(int[][] grid, int[][] solution, boolean[] given,
+                        int score, int seconds, boolean help, int mistakes, Difficulty difficulty) {
+        this.grid = grid;
+        this.solution = solution;
+        this.given = given;
+        this.score = score;
+        this.seconds = seconds;
+        this.help = help;
+        this.mistakes = mistakes;
+        this.difficulty = difficulty;
+    }
+
+    // Copie de l'état courant : la photo ne bouge plus si la partie continue pendant l'écriture
+    public static GameSnapshot of(GameState game, int score, int seconds, boolean help, int mistakes,
+                                  Difficulty difficulty) {
+        int[][] grid = new int[SudokuBoard.SIZE][];
+        int[][] solution = new int[SudokuBoard.SIZE][];
+        for (int r = 0; r < SudokuBoard.SIZE; r++) {
+            grid[r] = game.getGrid()[r].clone();
+            solution[r] = game.getSolution()[r].clone();
+        }
+        boolean[] given = new boolean[SudokuBoard.CELLS];
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            given[i] = game.isGiven(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE);
+        }
+        return new GameSnapshot(grid, solution, given, score, seconds, help, mistakes, difficulty);
+    }
+
+    // Partie prête à jouer (grille propre à l'appelant, pas partagée avec la photo)
+    public GameState toGameState() {
+        int[][] copy = new int[SudokuBoard.SIZE][];
+        for (int r = 0; r < SudokuBoard.SIZE; r++) copy[r] = grid[r].clone();
+        return new GameState(copy, solution, given);
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buf = ByteBuffer.allocate(SIZE);
+        buf.putInt(MAGIC).put(VERSION)
+                .put((byte) (difficulty == null ? NO_DIFFICULTY : difficulty.ordinal()))
+                .put((byte) (help ? FLAG_HELP : 0)).put((byte) Math.min(mistakes, 255));
+        buf.putInt(score).putInt(seconds);
+        putDigits(buf, grid);
+        putDigits(buf, solution);
+        for (int i = 0; i < PuzzleStore.CLUES_SIZE; i++) {
+            int bits = 0;
+            for (int b = 0; b < 8; b++) {
+                int cell = i * 8 + b;
+                if (cell < SudokuBoard.CELLS && given[cell]) bits |= 1 << b;
+            }
+            buf.put((byte) bits);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, SIZE - 4);
+        buf.putInt((int) crc.getValue());
+        return buf.array();
+    }
+
+    /** Décode une photo, null si les octets ne forment pas une photo valide. */
+    public static GameSnapshot fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != SIZE) return null;
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, SIZE - 4);
+        if (buf.getInt(SIZE - 4) != (int) crc.getValue()) return null;
+        if (buf.getInt() != MAGIC || buf.get() != VERSION) return null;
+
+        int level = buf.get() & 0xFF;
+        int flags = buf.get();
+        int mistakes = buf.get() & 0xFF;
+        int score = buf.getInt();
+        int seconds = buf.getInt();
+        int[][] grid = getDigits(buf);
+        int[][] solution = getDigits(buf);
+        boolean[] given = new boolean[SudokuBoard.CELLS];
+        for (int i = 0; i < PuzzleStore.CLUES_SIZE; i++) {
+            int bits = buf.get();
+            for (int b = 0; b < 8; b++) {
+                int cell = i * 8 + b;
+                if (cell < SudokuBoard.CELLS) given[cell] = (bits & (1 << b)) != 0;
+            }
+        }
+        Difficulty difficulty = level < Difficulty.values().length ? Difficulty.values()[level] : null;
+        return new GameSnapshot(grid, solution, given, score, seconds, (flags & FLAG_HELP) != 0, mistakes, difficulty);
+    }
+
+    // Écrit dans un fichier temporaire puis renomme : un crash ne laisse jamais un fichier à moitié écrit
+    public static void write(File file, GameSnapshot snapshot) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(snapshot.toBytes());
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Impossible de renommer " + tmp);
+        }
+    }
+
+    /** Dernière photo enregistrée, null si absente ou illisible. */
+    public static GameSnapshot read(File file) {
+        if (!file.isFile() || file.length() != SIZE) return null;
+        byte[] bytes = new byte[SIZE];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+        return fromBytes(bytes);
+    }
+
+    private static void putDigits(ByteBuffer buf, int[][] grid) {
+        for (int i = 0; i < PuzzleStore.DIGITS_SIZE; i++) {
+            int lo = digit(grid, 2 * i);
+            int hi = 2 * i + 1 < SudokuBoard.CELLS ? digit(grid, 2 * i + 1) : 0;
+            buf.put((byte) (lo | hi << 4));
+        }
+    }
+
+    private static int[][] getDigits(ByteBuffer buf) {
+        int[][] grid = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+        for (int i = 0; i < PuzzleStore.DIGITS_SIZE; i++) {
+            int packed = buf.get() & 0xFF;
+            set(grid, 2 * i, packed & 0x0F);
+            if (2 * i + 1 < SudokuBoard.CELLS) set(grid, 2 * i + 1, packed >>> 4);
+        }
+        return grid;
+    }
+
+    private static int digit(int[][] grid, int cell) {
+        return grid[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE];
+    }
+
+    private static void set(int[][] grid, int cell, int value) {
+        grid[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE] = value;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mrlinfecter.sudoku.core;
+
+/**
+ * État de la partie en cours : la grille du joueur et des compteurs tenus à jour
+ * à chaque coup, pour que la victoire, la palette et les candidats se lisent en O(1).
+ */
+public class GameState {
+    private final int[][] grid;
+    private final int[][] solution;
+    private final boolean[] given = new boolean[SudokuBoard.CELLS]; // cases de départ de la grille
+    private final int[] digitCounts = new int[10]; // index 1..9
+    private int emptyCells = 0;
+    private int wrongCells = 0; // cases remplies avec un chiffre différent de la solution
+    private final CandidateTable candidates;
+
+    // Nouvelle partie : les cases remplies sont les cases de départ
+    public GameState(int[][] grid, int[][] solution) {
+        this(grid, solution, null);
+    }
+
+    // Partie reprise : given indique les cases de départ (null = toutes les cases remplies)
+    public GameState(int[][] grid, int[][] solution, boolean[] given) {
+        this.grid = grid;
+        this.solution = solution;
+        for (int r = 0; r < SudokuBoard.SIZE; r++) {
+            for (int c = 0; c < SudokuBoard.SIZE; c++) {
+                int value = grid[r][c];
+                int index = r * SudokuBoard.SIZE + c;
+                this.given[index] = given == null ? value != 0 : given[index];
+                if (value == 0) {
+                    emptyCells++;
+                } else {
+                    digitCounts[value]++;
+                    if (value != solution[r][c]) wrongCells++;
+                }
+            }
+        }
+        candidates = new CandidateTable(grid);
+    }
+
+    // La grille est partagée (pas de copie) : les vues la lisent directement
+    public int[][] getGrid() {
+        return grid;
+    }
+
+    public int[][] getSolution() {
+        return solution;
+    }
+
+    public int get(int row, int col) {
+        return grid[row][col];
+    }
+
+    public boolean isGiven(int row, int col) {
+        return given[row * SudokuBoard.SIZE + col];
+    }
+
+    public boolean isCorrect(int row, int col, int digit) {
+        return solution[row][col] == digit;
+    }
+
+    // Pose (ou efface avec 0) un chiffre et met les compteurs à jour
+    public void set(int row, int col, int digit) {
+        int old = grid[row][col];
+        if (old == digit) return;
+        if (old == 0) {
+            emptyCells--;
+        } else {
+            digitCounts[old]--;
+            if (old != solution[row][col]) wrongCells--;
+        }
+        grid[row][col] = digit;
+        candidates.set(row * SudokuBoard.SIZE + col, digit);
+        if (digit == 0) {
+            emptyCells++;
+        } else {
+            digitCounts[digit]++;
+            if (digit != solution[row][col]) wrongCells++;
+        }
+    }
+
+    public void clear(int row, int col) {
+        set(row, col, 0);
+    }
+
+    // Nombre d'occurrences du chiffre dans la grille
+    public int count(int digit) {
+        return digitCounts[digit];
+    }
+
+    // Les 9 exemplaires du chiffre sont posés
+    public boolean isDigitComplete(int digit) {
+        return digitCounts[digit] >= SudokuBoard.SIZE;
+    }
+
+    // Chiffres encore possibles pour la case (bit d - 1), 0 si elle est remplie
+    public int candidates(int row, int col) {
+        return candidates.get(row, col);
+    }
+
+    public CandidateTable getCandidates() {
+        return candidates;
+    }
+
+    public int getEmptyCells() {
+        return emptyCells;
+    }
+
+    public boolean isSolved() {
+        return emptyCells == 0 && wrongCells == 0;
+    }
+}
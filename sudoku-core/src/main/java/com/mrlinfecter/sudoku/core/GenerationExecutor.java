@@ -0,0 +1,122 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Toutes les générations de grilles de l'application passent par ici, sur un seul thread :
+ * - une demande FOREGROUND (le joueur attend) passe devant les remplissages BACKGROUND ;
+ *   un remplissage en cours s'interrompt entre deux essais et se remet dans la file ;
+ * - chaque demande peut être annulée (partie quittée avant la fin de la génération) ;
+ * - avec un budget de temps, la génération rend la meilleure grille trouvée à l'échéance.
+ */
+public class GenerationExecutor {
+    public enum Priority { FOREGROUND, BACKGROUND }
+
+    public interface Callback {
+        // Appelé sur le thread de génération ; jamais appelé si la demande est annulée
+        void onGenerated(Puzzle puzzle);
+    }
+
+    private static GenerationExecutor instance;
+
+    public static synchronized GenerationExecutor getInstance() {
+        if (instance == null) instance = new GenerationExecutor();
+        return instance;
+    }
+
+    /** Une demande de génération ; cancel() est sans effet une fois la grille livrée. */
+    public final class Task implements Runnable, Comparable<Task> {
+        private final Priority priority;
+        private final long sequence = sequences.getAndIncrement(); // ordre d'arrivée à priorité égale
+        private final long seed;
+        private final Difficulty level;
+        private final int maxAttempts;
+        private final long budgetNanos;
+        private final Callback callback;
+        private volatile boolean cancelled = false;
+        private volatile int yields = 0; // fois où la tâche a cédé la place à une demande du joueur
+
+        private Task(Priority priority, long seed, Difficulty level, int maxAttempts, long budgetNanos,
+                     Callback callback) {
+            this.priority = priority;
+            this.seed = seed;
+            this.level = level;
+            this.maxAttempts = maxAttempts;
+            this.budgetNanos = budgetNanos;
+            this.callback = callback;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        int getYields() {
+            return yields;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) return priority.compareTo(other.priority);
+            return Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public void run() {
+            boolean foreground = priority == Priority.FOREGROUND;
+            if (foreground) waitingForeground.decrementAndGet();
+            if (cancelled) return;
+
+            Thread.currentThread().setPriority(foreground ? Thread.NORM_PRIORITY : Thread.MIN_PRIORITY);
+            // Le joueur attend : tests d'unicité répartis sur les cœurs ; sinon on reste sur un seul
+            generator.setParallel(foreground && parallel ? ForkJoinPool.commonPool() : null);
+            Puzzle puzzle = generator.generate(seed, level, maxAttempts, budgetNanos,
+                    () -> cancelled || (!foreground && waitingForeground.get() > 0));
+
+            if (cancelled) return;
+            if (puzzle == null) {
+                // Remplissage interrompu par une demande du joueur : il reprendra après elle.
+                // C'est la même tâche qui revient dans la file (même rang, et cancel() reste valable)
+                yields++;
+                executor.execute(this);
+                return;
+            }
+            callback.onGenerated(puzzle);
+        }
+    }
+
+    private final AtomicLong sequences = new AtomicLong();
+    private final AtomicInteger waitingForeground = new AtomicInteger();
+    private final SudokuGenerator generator = new SudokuGenerator(); // utilisé seulement par le thread de génération
+    private final boolean parallel = Runtime.getRuntime().availableProcessors() > 1;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "GenerationExecutor");
+                t.setDaemon(true);
+                return t;
+            });
+
+    private GenerationExecutor() {
+    }
+
+    /**
+     * Programme une génération notée (voir SudokuGenerator.generate(seed, target, maxAttempts)).
+     * budgetMs <= 0 : pas d'échéance.
+     */
+    public Task submit(Priority priority, long seed, Difficulty level, int maxAttempts, long budgetMs,
+                       Callback callback) {
+        long budgetNanos = budgetMs > 0 ? TimeUnit.MILLISECONDS.toNanos(budgetMs) : Long.MAX_VALUE;
+        Task task = new Task(priority, seed, level, maxAttempts, budgetNanos, callback);
+        if (priority == Priority.FOREGROUND) waitingForeground.incrementAndGet();
+        executor.execute(task);
+        return task;
+    }
+}
@@ -0,0 +1,375 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.util.Arrays;
+
+/**
+ * Aide "humaine" : trouve la prochaine déduction logique sur la grille en essayant
+ * les techniques de la plus simple à la plus avancée (singletons, pointantes,
+ * réduction bloc / ligne, sous-ensembles nus et cachés, X-Wing, Swordfish).
+ * Tout se fait sur les masques de candidats (bit d - 1) : une recherche complète
+ * sur une grille pleine de candidats tient largement dans une frame.
+ * Les tableaux de travail sont réutilisés d'un appel à l'autre : une instance par thread.
+ */
+public class HintEngine {
+
+    // Dans l'ordre où on les cherche, donc du plus simple au plus difficile
+    public enum Technique {
+        HIDDEN_SINGLE("Singleton caché"),
+        NAKED_SINGLE("Singleton nu"),
+        POINTING("Paire pointante"),
+        BOX_LINE("Réduction bloc / ligne"),
+        NAKED_PAIR("Paire nue"),
+        HIDDEN_PAIR("Paire cachée"),
+        NAKED_TRIPLE("Triplet nu"),
+        HIDDEN_TRIPLE("Triplet caché"),
+        X_WING("X-Wing"),
+        NAKED_QUAD("Quadruplet nu"),
+        HIDDEN_QUAD("Quadruplet caché"),
+        SWORDFISH("Swordfish");
+
+        public final String label;
+
+        Technique(String label) {
+            this.label = label;
+        }
+    }
+
+    /** Une déduction : soit un chiffre à poser, soit des candidats à retirer. */
+    public static final class Hint {
+        public final Technique technique;
+        public final int digit;              // chiffre posé ou éliminé, 0 pour les sous-ensembles
+        public final int[] cells;            // cases du motif (la case à remplir pour un singleton)
+        public final int[] eliminationCells;
+        public final int[] eliminationMasks; // chiffres retirés de chaque case (bit d - 1)
+
+        Hint(Technique technique, int digit, int[] cells, int[] eliminationCells, int[] eliminationMasks) {
+            this.technique = technique;
+            this.digit = digit;
+            this.cells = cells;
+            this.eliminationCells = eliminationCells;
+            this.eliminationMasks = eliminationMasks;
+        }
+
+        public boolean isPlacement() {
+            return eliminationCells.length == 0;
+        }
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private final int[] candidates = new int[SudokuBoard.CELLS];
+    // Éliminations déjà données au joueur (next) : elles restent acquises pour les indices suivants
+    private final int[] eliminated = new int[SudokuBoard.CELLS];
+
+    // Tampons de travail
+    private final int[] itemMasks = new int[SudokuBoard.SIZE];
+    private final int[] itemIds = new int[SudokuBoard.SIZE];
+    private final int[] pick = new int[4];
+    private final int[] pattern = new int[SudokuBoard.CELLS];
+    private int patternCount;
+    private final int[] elimCells = new int[SudokuBoard.CELLS];
+    private final int[] elimMasks = new int[SudokuBoard.CELLS];
+    private int elimCount;
+
+    /**
+     * Prochaine déduction pour la partie en cours, null si aucune technique ne s'applique.
+     * Les éliminations renvoyées sont retenues : l'appel suivant part de là.
+     */
+    public Hint next(GameState game) {
+        CandidateTable table = game.getCandidates();
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            candidates[i] = table.get(i) & ~eliminated[i];
+        }
+        Hint hint = find(candidates);
+        if (hint != null) {
+            for (int j = 0; j < hint.eliminationCells.length; j++) {
+                eliminated[hint.eliminationCells[j]] |= hint.eliminationMasks[j];
+            }
+        }
+        return hint;
+    }
+
+    // Nouvelle partie : on oublie les éliminations
+    public void reset() {
+        Arrays.fill(eliminated, 0);
+    }
+
+    /** Prochaine déduction sur ces masques de candidats (0 = case remplie), sans les modifier. */
+    public Hint find(int[] cand) {
+        Hint hint;
+        if ((hint = hiddenSingle(cand)) != null) return hint;
+        if ((hint = nakedSingle(cand)) != null) return hint;
+        if ((hint = pointing(cand)) != null) return hint;
+        if ((hint = boxLine(cand)) != null) return hint;
+        if ((hint = nakedSubset(cand, 2, Technique.NAKED_PAIR)) != null) return hint;
+        if ((hint = hiddenSubset(cand, 2, Technique.HIDDEN_PAIR)) != null) return hint;
+        if ((hint = nakedSubset(cand, 3, Technique.NAKED_TRIPLE)) != null) return hint;
+        if ((hint = hiddenSubset(cand, 3, Technique.HIDDEN_TRIPLE)) != null) return hint;
+        if ((hint = fish(cand, 2, Technique.X_WING)) != null) return hint;
+        if ((hint = nakedSubset(cand, 4, Technique.NAKED_QUAD)) != null) return hint;
+        if ((hint = hiddenSubset(cand, 4, Technique.HIDDEN_QUAD)) != null) return hint;
+        return fish(cand, 3, Technique.SWORDFISH);
+    }
+
+    /** Applique la déduction sur les masques (pose : la case et le chiffre chez ses voisines). */
+    public static void apply(Hint hint, int[] cand) {
+        if (hint.isPlacement()) {
+            int cell = hint.cells[0];
+            int bit = ~(1 << (hint.digit - 1));
+            cand[cell] = 0;
+            for (int peer : SudokuBoard.PEERS[cell]) cand[peer] &= bit;
+            return;
+        }
+        for (int j = 0; j < hint.eliminationCells.length; j++) {
+            cand[hint.eliminationCells[j]] &= ~hint.eliminationMasks[j];
+        }
+    }
+
+    // Un chiffre qui n'a plus qu'une place dans une unité
+    private Hint hiddenSingle(int[] cand) {
+        for (int[] unit : SudokuBoard.UNITS) {
+            int once = 0, twice = 0;
+            for (int i : unit) {
+                twice |= once & cand[i];
+                once |= cand[i];
+            }
+            int singles = once & ~twice;
+            if (singles == 0) continue;
+            int bit = singles & -singles;
+            for (int i : unit) {
+                if ((cand[i] & bit) != 0) return placement(Technique.HIDDEN_SINGLE, i, bit);
+            }
+        }
+        return null;
+    }
+
+    // Une case qui n'a plus qu'un candidat
+    private Hint nakedSingle(int[] cand) {
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            int m = cand[i];
+            if (m != 0 && (m & (m - 1)) == 0) return placement(Technique.NAKED_SINGLE, i, m);
+        }
+        return null;
+    }
+
+    // Dans un bloc, le chiffre n'est possible que sur une ligne (ou colonne) : on le retire du reste de la ligne
+    private Hint pointing(int[] cand) {
+        for (int box = 0; box < SudokuBoard.SIZE; box++) {
+            int[] unit = SudokuBoard.UNITS[2 * SudokuBoard.SIZE + box];
+            for (int bit = 1; bit <= SudokuBoard.ALL; bit <<= 1) {
+                int rows = 0, cols = 0;
+                startPattern();
+                for (int i : unit) {
+                    if ((cand[i] & bit) == 0) continue;
+                    rows |= 1 << SudokuBoard.ROW[i];
+                    cols |= 1 << SudokuBoard.COL[i];
+                    pattern[patternCount++] = i;
+                }
+                if (patternCount < 2) continue;
+                int line = -1;
+                if (Integer.bitCount(rows) == 1) line = Integer.numberOfTrailingZeros(rows);
+                else if (Integer.bitCount(cols) == 1) line = SudokuBoard.SIZE + Integer.numberOfTrailingZeros(cols);
+                if (line < 0) continue;
+
+                elimCount = 0;
+                for (int j : SudokuBoard.UNITS[line]) {
+                    if (SudokuBoard.BOX[j] != box && (cand[j] & bit) != 0) addElimination(j, bit);
+                }
+                if (elimCount > 0) return eliminations(Technique.POINTING, bit);
+            }
+        }
+        return null;
+    }
+
+    // Dans une ligne (ou colonne), le chiffre n'est possible que dans un bloc : on le retire du reste du bloc
+    private Hint boxLine(int[] cand) {
+        for (int line = 0; line < 2 * SudokuBoard.SIZE; line++) {
+            int[] unit = SudokuBoard.UNITS[line];
+            for (int bit = 1; bit <= SudokuBoard.ALL; bit <<= 1) {
+                int boxes = 0;
+                startPattern();
+                for (int i : unit) {
+                    if ((cand[i] & bit) == 0) continue;
+                    boxes |= 1 << SudokuBoard.BOX[i];
+                    pattern[patternCount++] = i;
+                }
+                if (patternCount < 2 || Integer.bitCount(boxes) != 1) continue;
+
+                int box = Integer.numberOfTrailingZeros(boxes);
+                elimCount = 0;
+                for (int j : SudokuBoard.UNITS[2 * SudokuBoard.SIZE + box]) {
+                    boolean onLine = line < SudokuBoard.SIZE
+                            ? SudokuBoard.ROW[j] == line
+                            : SudokuBoard.COL[j] == line - SudokuBoard.SIZE;
+                    if (!onLine && (cand[j] & bit) != 0) addElimination(j, bit);
+                }
+                if (elimCount > 0) return eliminations(Technique.BOX_LINE, bit);
+            }
+        }
+        return null;
+    }
+
+    // k cases d'une unité qui se partagent k candidats : ces chiffres sortent des autres cases
+    private Hint nakedSubset(int[] cand, int k, Technique technique) {
+        for (int[] unit : SudokuBoard.UNITS) {
+            int n = 0;
+            for (int i : unit) {
+                int count = Integer.bitCount(cand[i]);
+                if (count >= 2 && count <= k) {
+                    itemIds[n] = i;
+                    itemMasks[n++] = cand[i];
+                }
+            }
+            if (n < k) continue;
+            firstCombination(k);
+            do {
+                int union = 0;
+                for (int p = 0; p < k; p++) union |= itemMasks[pick[p]];
+                if (Integer.bitCount(union) != k) continue;
+
+                startPattern();
+                for (int p = 0; p < k; p++) pattern[patternCount++] = itemIds[pick[p]];
+                elimCount = 0;
+                for (int j : unit) {
+                    if (inPattern(j)) continue;
+                    int removed = cand[j] & union;
+                    if (removed != 0) addElimination(j, removed);
+                }
+                if (elimCount > 0) return eliminations(technique, 0);
+            } while (nextCombination(k, n));
+        }
+        return null;
+    }
+
+    // k chiffres d'une unité confinés dans k cases : les autres candidats de ces cases sortent
+    private Hint hiddenSubset(int[] cand, int k, Technique technique) {
+        for (int[] unit : SudokuBoard.UNITS) {
+            int n = 0;
+            for (int d = 0; d < SudokuBoard.SIZE; d++) {
+                int positions = 0;
+                for (int p = 0; p < SudokuBoard.SIZE; p++) {
+                    if ((cand[unit[p]] & (1 << d)) != 0) positions |= 1 << p;
+                }
+                int count = Integer.bitCount(positions);
+                if (count >= 2 && count <= k) {
+                    itemIds[n] = d;
+                    itemMasks[n++] = positions;
+                }
+            }
+            if (n < k) continue;
+            firstCombination(k);
+            do {
+                int union = 0, digits = 0;
+                for (int p = 0; p < k; p++) {
+                    union |= itemMasks[pick[p]];
+                    digits |= 1 << itemIds[pick[p]];
+                }
+                if (Integer.bitCount(union) != k) continue;
+
+                startPattern();
+                elimCount = 0;
+                for (int p = 0; p < SudokuBoard.SIZE; p++) {
+                    if ((union & (1 << p)) == 0) continue;
+                    int j = unit[p];
+                    pattern[patternCount++] = j;
+                    int removed = cand[j] & ~digits;
+                    if (removed != 0) addElimination(j, removed);
+                }
+                if (elimCount > 0) return eliminations(technique, 0);
+            } while (nextCombination(k, n));
+        }
+        return null;
+    }
+
+    // X-Wing (k = 2) / Swordfish (k = 3) : k lignes où le chiffre tient dans k colonnes (ou l'inverse)
+    private Hint fish(int[] cand, int k, Technique technique) {
+        for (int bit = 1; bit <= SudokuBoard.ALL; bit <<= 1) {
+            for (int base = 0; base < 2; base++) {
+                // base 0 : lignes / colonnes, base 1 : colonnes / lignes
+                int baseOffset = base * SudokuBoard.SIZE;
+                int coverOffset = (1 - base) * SudokuBoard.SIZE;
+                int n = 0;
+                for (int b = 0; b < SudokuBoard.SIZE; b++) {
+                    int[] unit = SudokuBoard.UNITS[baseOffset + b];
+                    int positions = 0;
+                    for (int p = 0; p < SudokuBoard.SIZE; p++) {
+                        if ((cand[unit[p]] & bit) != 0) positions |= 1 << p;
+                    }
+                    int count = Integer.bitCount(positions);
+                    if (count >= 2 && count <= k) {
+                        itemIds[n] = b;
+                        itemMasks[n++] = positions;
+                    }
+                }
+                if (n < k) continue;
+                firstCombination(k);
+                do {
+                    int covers = 0, bases = 0;
+                    for (int p = 0; p < k; p++) {
+                        covers |= itemMasks[pick[p]];
+                        bases |= 1 << itemIds[pick[p]];
+                    }
+                    if (Integer.bitCount(covers) != k) continue;
+
+                    startPattern();
+                    elimCount = 0;
+                    for (int c = 0; c < SudokuBoard.SIZE; c++) {
+                        if ((covers & (1 << c)) == 0) continue;
+                        int[] cover = SudokuBoard.UNITS[coverOffset + c];
+                        // Dans l'unité de couverture, la position p correspond à l'unité de base p
+                        for (int p = 0; p < SudokuBoard.SIZE; p++) {
+                            int j = cover[p];
+                            if ((cand[j] & bit) == 0) continue;
+                            if ((bases & (1 << p)) != 0) pattern[patternCount++] = j;
+                            else addElimination(j, bit);
+                        }
+                    }
+                    if (elimCount > 0) return eliminations(technique, bit);
+                } while (nextCombination(k, n));
+            }
+        }
+        return null;
+    }
+
+    private void startPattern() {
+        patternCount = 0;
+    }
+
+    private boolean inPattern(int cell) {
+        for (int p = 0; p < patternCount; p++) {
+            if (pattern[p] == cell) return true;
+        }
+        return false;
+    }
+
+    private void addElimination(int cell, int mask) {
+        elimCells[elimCount] = cell;
+        elimMasks[elimCount++] = mask;
+    }
+
+    private void firstCombination(int k) {
+        for (int p = 0; p < k; p++) pick[p] = p;
+    }
+
+    // Combinaison suivante de k indices parmi n (ordre lexicographique), false à la fin
+    private boolean nextCombination(int k, int n) {
+        int p = k - 1;
+        while (p >= 0 && pick[p] == n - k + p) p--;
+        if (p < 0) return false;
+        pick[p]++;
+        for (int q = p + 1; q < k; q++) pick[q] = pick[q - 1] + 1;
+        return true;
+    }
+
+    private static Hint placement(Technique technique, int cell, int bit) {
+        return new Hint(technique, Integer.numberOfTrailingZeros(bit) + 1, new int[]{cell}, NONE, NONE);
+    }
+
+    private Hint eliminations(Technique technique, int bit) {
+        int digit = bit == 0 ? 0 : Integer.numberOfTrailingZeros(bit) + 1;
+        return new Hint(technique, digit,
+                Arrays.copyOf(pattern, patternCount),
+                Arrays.copyOf(elimCells, elimCount),
+                Arrays.copyOf(elimMasks, elimCount));
+    }
+}
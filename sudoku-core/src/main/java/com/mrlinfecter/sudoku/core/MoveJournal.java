@@ -0,0 +1,327 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Journal des coups d'une partie, en ajout seul.
+ * Chaque coup est un enregistrement de 8 octets : case, chiffre, résultat, variation
+ * du score et temps écoulé depuis le coup précédent (ms). Les annulations sont
+ * elles-mêmes des enregistrements : rien n'est jamais réécrit, et rejouer le journal
+ * depuis la position de départ redonne exactement la partie (grille, score, temps, aide).
+ *
+ * Fichier : magic "SDKJ" (int), version (int), position de départ (GameSnapshot),
+ * puis les enregistrements. Ils sont écrits par paquets sur un thread d'arrière-plan ;
+ * un enregistrement coupé par un crash est simplement ignoré à la lecture.
+ */
+public final class MoveJournal {
+    // Résultats d'un coup
+    public static final int PLACED = 0;  // bon chiffre posé
+    public static final int HINTED = 1;  // chiffre posé par l'aide
+    public static final int WRONG = 2;   // mauvais chiffre, la grille ne change pas
+    public static final int UNDO = 3;    // dernier chiffre posé retiré, ses points avec
+    public static final int REDO = 4;    // chiffre retiré reposé, ses points rendus
+    public static final int HELP = 5;    // aide activée
+
+    private static final int MAGIC = 0x53444B4A; // "SDKJ"
+    private static final int VERSION = 2; // 2 : variation du score sur 18 bits
+    private static final int HEADER_SIZE = 8 + GameSnapshot.SIZE;
+    static final int RECORD_SIZE = 8;
+    static final int BATCH = 16; // enregistrements gardés en mémoire avant écriture
+    // Variation du score d'un coup : entier signé sur 18 bits, bornes symétriques
+    // pour qu'une annulation (variation opposée) tienne toujours dans le champ
+    static final int MAX_SCORE_DELTA = (1 << 17) - 1;
+    static final int MIN_SCORE_DELTA = -MAX_SCORE_DELTA;
+
+    // Un seul thread pour tous les journaux : les paquets d'un fichier restent dans l'ordre
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "MoveJournal-write");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final GameSnapshot start;
+    private long[] records = new long[64];
+    private int count = 0;
+    private int flushed = 0;   // enregistrements déjà confiés au thread d'écriture
+    private File file = null;
+
+    // Pile des enregistrements de pose : [0, done[ est sur la grille, [done, limit[ peut être refait
+    private int[] placements = new int[64];
+    private int done = 0;
+    private int limit = 0;
+
+    // Totaux tenus à jour à chaque ajout
+    private int score;
+    private long timeMs;
+    private boolean help;
+    private int mistakes;
+    private long lastClock; // temps de jeu au dernier enregistrement
+
+    public MoveJournal(GameSnapshot start) {
+        this.start = start;
+        this.score = start.score;
+        this.timeMs = start.seconds * 1000L;
+        this.help = start.help;
+        this.mistakes = start.mistakes;
+        this.lastClock = timeMs;
+    }
+
+    public GameSnapshot getStart() {
+        return start;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getSeconds() {
+        return (int) (timeMs / 1000);
+    }
+
+    public boolean isHelpUsed() {
+        return help;
+    }
+
+    public int getMistakes() {
+        return mistakes;
+    }
+
+    public boolean canUndo() {
+        return done > 0;
+    }
+
+    public boolean canRedo() {
+        return done < limit;
+    }
+
+    /**
+     * Ajoute un coup déjà appliqué à la partie (PLACED, HINTED, WRONG ou HELP).
+     * clockMs : temps de jeu de la partie, seul l'écart avec le coup précédent est gardé.
+     * @throws IllegalArgumentException si un champ ne tient pas dans l'enregistrement
+     */
+    public void record(int cell, int digit, int outcome, int scoreDelta, long clockMs) {
+        if (cell < 0 || cell >= SudokuBoard.CELLS) throw new IllegalArgumentException("case " + cell);
+        if (digit < 0 || digit > 9) throw new IllegalArgumentException("chiffre " + digit);
+        if (outcome != PLACED && outcome != HINTED && outcome != WRONG && outcome != HELP) {
+            throw new IllegalArgumentException("résultat " + outcome);
+        }
+        if (scoreDelta < MIN_SCORE_DELTA || scoreDelta > MAX_SCORE_DELTA) {
+            throw new IllegalArgumentException("variation du score " + scoreDelta);
+        }
+        append(pack(cell, digit, outcome, scoreDelta, elapsed(clockMs)));
+    }
+
+    /**
+     * Retire de la partie le dernier chiffre posé, -1 s'il n'y en a pas.
+     * Les points de la pose sont retirés aussi (voir getScore()) : sinon annuler puis reposer
+     * le même chiffre rapporterait des points à l'infini.
+     */
+    public int undo(GameState game, long clockMs) {
+        if (done == 0) return -1;
+        long placed = records[placements[done - 1]];
+        int cell = cellOf(placed);
+        game.clear(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE);
+        append(pack(cell, digitOf(placed), UNDO, -scoreOf(placed), elapsed(clockMs)));
+        return cell;
+    }
+
+    /** Repose le dernier chiffre retiré, -1 s'il n'y en a pas. */
+    public int redo(GameState game, long clockMs) {
+        if (done == limit) return -1;
+        long placed = records[placements[done]];
+        int cell = cellOf(placed);
+        int digit = digitOf(placed);
+        game.set(cell / SudokuBoard.SIZE, cell % SudokuBoard.SIZE, digit);
+        append(pack(cell, digit, REDO, scoreOf(placed), elapsed(clockMs)));
+        return cell;
+    }
+
+    /** Rejoue tout le journal depuis la position de départ. */
+    public GameState replay() {
+        GameState game = start.toGameState();
+        for (int i = 0; i < count; i++) {
+            long rec = records[i];
+            int cell = cellOf(rec);
+            int r = cell / SudokuBoard.SIZE, c = cell % SudokuBoard.SIZE;
+            switch (outcomeOf(rec)) {
+                case PLACED:
+                case HINTED:
+                case REDO:
+                    game.set(r, c, digitOf(rec));
+                    break;
+                case UNDO:
+                    game.clear(r, c);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return game;
+    }
+
+    private long elapsed(long clockMs) {
+        long delta = Math.max(0, clockMs - lastClock);
+        lastClock = Math.max(lastClock, clockMs);
+        return delta;
+    }
+
+    private void append(long rec) {
+        if (count == records.length) records = Arrays.copyOf(records, count * 2);
+        records[count] = rec;
+        track(count);
+        count++;
+        if (file != null && count - flushed >= BATCH) flush();
+    }
+
+    // Met à jour la pile annuler / refaire et les totaux pour l'enregistrement index
+    private void track(int index) {
+        long rec = records[index];
+        switch (outcomeOf(rec)) {
+            case PLACED:
+            case HINTED:
+                if (done == placements.length) placements = Arrays.copyOf(placements, done * 2);
+                placements[done++] = index;
+                limit = done; // un nouveau coup efface ce qui pouvait être refait
+                break;
+            case UNDO:
+                done--;
+                break;
+            case REDO:
+                done++;
+                break;
+            case HELP:
+                help = true;
+                break;
+            case WRONG:
+                mistakes++;
+                break;
+            default:
+                break;
+        }
+        score += scoreOf(rec);
+        timeMs += deltaOf(rec);
+    }
+
+    private boolean accepts(long rec) {
+        if (cellOf(rec) >= SudokuBoard.CELLS || digitOf(rec) > 9) return false;
+        int outcome = outcomeOf(rec);
+        if (outcome == UNDO) return done > 0;
+        if (outcome == REDO) return done < limit;
+        return outcome <= HELP;
+    }
+
+    // case (7 bits) | chiffre (4) | résultat (3) | variation du score (18, signée) | écart en ms (32)
+    private static long pack(int cell, int digit, int outcome, int scoreDelta, long deltaMs) {
+        long delta = Math.min(deltaMs, 0xFFFFFFFFL);
+        return (long) cell << 57 | (long) digit << 53 | (long) outcome << 50
+                | (long) (scoreDelta & 0x3FFFF) << 32 | delta;
+    }
+
+    static int cellOf(long rec) {
+        return (int) (rec >>> 57) & 0x7F;
+    }
+
+    static int digitOf(long rec) {
+        return (int) (rec >>> 53) & 0x0F;
+    }
+
+    static int outcomeOf(long rec) {
+        return (int) (rec >>> 50) & 0x07;
+    }
+
+    static int scoreOf(long rec) {
+        return (int) (rec << 14 >> 46); // extension du signe des 18 bits
+    }
+
+    static long deltaOf(long rec) {
+        return rec & 0xFFFFFFFFL;
+    }
+
+    // --- Fichier ---
+
+    /** Écrit l'en-tête (en arrière-plan) puis garde le fichier pour les paquets suivants. */
+    public void attach(File file) {
+        this.file = file;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE * count);
+        buf.putInt(MAGIC).putInt(VERSION).put(start.toBytes());
+        for (int i = 0; i < count; i++) buf.putLong(records[i]);
+        flushed = count;
+        byte[] bytes = buf.array();
+        WRITER.execute(() -> write(file, bytes, false));
+    }
+
+    /** Envoie au thread d'écriture les enregistrements pas encore écrits. */
+    public void flush() {
+        if (file == null || flushed == count) return;
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE * (count - flushed));
+        for (int i = flushed; i < count; i++) buf.putLong(records[i]);
+        flushed = count;
+        File target = file;
+        byte[] bytes = buf.array();
+        WRITER.execute(() -> write(target, bytes, true));
+    }
+
+    /** Partie terminée : le journal n'a plus à être repris. */
+    public void delete() {
+        File target = file;
+        file = null;
+        if (target != null) WRITER.execute(target::delete);
+    }
+
+    // Attend que les écritures déjà programmées soient faites (tests)
+    static void awaitWrites() throws InterruptedException, ExecutionException {
+        WRITER.submit(() -> { }).get();
+    }
+
+    private static void write(File file, byte[] bytes, boolean append) {
+        try (FileOutputStream out = new FileOutputStream(file, append)) {
+            out.write(bytes);
+            out.getFD().sync();
+        } catch (IOException ignored) {
+            // Le journal reste complet en mémoire ; la photo de la partie sert de secours
+        }
+    }
+
+    /** Journal enregistré, null s'il est absent ou si son en-tête est illisible. */
+    public static MoveJournal read(File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE) return null;
+        byte[] bytes = new byte[(int) file.length()];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(bytes);
+        } catch (IOException e) {
+            return null;
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION) return null;
+        byte[] header = new byte[GameSnapshot.SIZE];
+        buf.get(header);
+        GameSnapshot start = GameSnapshot.fromBytes(header);
+        if (start == null) return null;
+
+        MoveJournal journal = new MoveJournal(start);
+        int n = buf.remaining() / RECORD_SIZE; // un dernier enregistrement incomplet est ignoré
+        journal.records = new long[Math.max(64, n)];
+        for (int i = 0; i < n; i++) {
+            long rec = buf.getLong();
+            if (!journal.accepts(rec)) break; // fin abîmée : on garde ce qui précède
+            journal.records[i] = rec;
+            journal.track(i);
+            journal.count++;
+        }
+        journal.flushed = journal.count;
+        journal.lastClock = journal.timeMs;
+        return journal;
+    }
+}
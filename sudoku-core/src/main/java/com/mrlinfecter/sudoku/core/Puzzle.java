@@ -0,0 +1,12 @@
+package com.mrlinfecter.sudoku.core;
+
+// Une grille à jouer et sa solution
+public class Puzzle {
+    public final int[][] grid;
+    public final int[][] solution;
+
+    public Puzzle(int[][] grid, int[][] solution) {
+        this.grid = grid;
+        this.solution = solution;
+    }
+}
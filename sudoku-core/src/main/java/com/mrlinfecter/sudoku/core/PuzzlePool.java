@@ -0,0 +1,177 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Réserve de grilles déjà générées pour chaque difficulté.
+ * take() est immédiat ; la réserve est complétée par le GenerationExecutor, en priorité
+ * BACKGROUND (une grille à la fois), à la demande de l'UI quand l'application est inactive.
+ * Si un fichier est attaché, la réserve y est conservée au format {@link PuzzleStore}.
+ */
+public class PuzzlePool {
+    private static final int CAPACITY = 3;                       // grilles prêtes par difficulté
+    private static final long MAX_AGE_MS = 24 * 60 * 60 * 1000L; // au-delà, la grille est jetée
+    private static final int RATED_ATTEMPTS = 64;                // essais pour viser le niveau (en arrière-plan)
+
+    private static PuzzlePool instance;
+
+    public static synchronized PuzzlePool getInstance() {
+        if (instance == null) instance = new PuzzlePool();
+        return instance;
+    }
+
+    private static class Entry {
+        final Puzzle puzzle;
+        final long createdAt;
+
+        Entry(Puzzle puzzle, long createdAt) {
+            this.puzzle = puzzle;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final Map<Difficulty, ArrayDeque<Entry>> ready = new EnumMap<>(Difficulty.class);
+    // Lecture et écriture du fichier de la réserve
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PuzzlePool-io");
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.setDaemon(true);
+        return t;
+    });
+    private final SplittableRandom seeds = new SplittableRandom();
+    private boolean refilling = false;
+    private File storeFile = null;
+
+    private PuzzlePool() {
+        for (Difficulty d : Difficulty.values()) ready.put(d, new ArrayDeque<>(CAPACITY));
+    }
+
+    // Grille prête à jouer, ou null si la réserve est vide pour cette difficulté
+    public synchronized Puzzle take(Difficulty difficulty) {
+        ArrayDeque<Entry> queue = ready.get(difficulty);
+        evictStale(queue, System.currentTimeMillis());
+        Entry e = queue.pollFirst();
+        if (e != null && storeFile != null) io.execute(this::save);
+        return e == null ? null : e.puzzle;
+    }
+
+    // Fichier où la réserve survit entre deux lancements ; lu en arrière-plan au premier appel
+    public synchronized void attachStore(File file) {
+        if (storeFile != null) return;
+        storeFile = file;
+        io.execute(this::load);
+    }
+
+    public synchronized int size(Difficulty difficulty) {
+        return ready.get(difficulty).size();
+    }
+
+    // Lance le remplissage en arrière-plan s'il manque des grilles (sans effet s'il tourne déjà)
+    public synchronized void refillAsync() {
+        if (refilling || !needsRefill()) return;
+        refilling = true;
+        refillNext();
+    }
+
+    // Demande la grille suivante ; chaque grille livrée relance la demande jusqu'à ce que tout soit plein
+    private synchronized void refillNext() {
+        Difficulty next = nextToFill();
+        if (next == null) {
+            refilling = false;
+            io.execute(this::save);
+            return;
+        }
+        GenerationExecutor.getInstance().submit(GenerationExecutor.Priority.BACKGROUND, seeds.nextLong(),
+                next, RATED_ATTEMPTS, 0, puzzle -> {
+                    offer(next, puzzle, System.currentTimeMillis());
+                    refillNext();
+                });
+    }
+
+    // Difficulté la moins remplie, null si tout est plein
+    private synchronized Difficulty nextToFill() {
+        long now = System.currentTimeMillis();
+        Difficulty best = null;
+        for (Difficulty d : Difficulty.values()) {
+            ArrayDeque<Entry> queue = ready.get(d);
+            evictStale(queue, now);
+            if (queue.size() < CAPACITY && (best == null || queue.size() < ready.get(best).size())) {
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    // Rangée par date de création : une grille relue du fichier peut être plus ancienne
+    // qu'une grille déjà générée par un remplissage
+    private synchronized void offer(Difficulty difficulty, Puzzle puzzle, long createdAt) {
+        ArrayDeque<Entry> queue = ready.get(difficulty);
+        ArrayDeque<Entry> newer = new ArrayDeque<>();
+        while (!queue.isEmpty() && queue.peekLast().createdAt > createdAt) newer.addFirst(queue.pollLast());
+        queue.addLast(new Entry(puzzle, createdAt));
+        queue.addAll(newer);
+        while (queue.size() > CAPACITY) queue.pollFirst(); // borne mémoire : on jette la plus ancienne
+    }
+
+    private void load() {
+        File file = storeFile;
+        if (!file.exists()) return;
+        // Chaque grille garde sa date de création : les réécritures du fichier ne la rajeunissent pas
+        try (PuzzleStore.Reader reader = PuzzleStore.open(file)) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < reader.size(); i++) {
+                Difficulty level = reader.difficulty(i);
+                long createdAt = reader.createdAt(i);
+                if (level != null && now - createdAt <= MAX_AGE_MS) offer(level, reader.get(i), createdAt);
+            }
+        } catch (IOException e) {
+            file.delete(); // fichier illisible : il sera réécrit au prochain remplissage
+        }
+    }
+
+    private void save() {
+        File file;
+        List<Puzzle> puzzles = new ArrayList<>();
+        List<Difficulty> levels = new ArrayList<>();
+        List<Long> createdAt = new ArrayList<>();
+        synchronized (this) {
+            file = storeFile;
+            if (file == null) return;
+            for (Map.Entry<Difficulty, ArrayDeque<Entry>> e : ready.entrySet()) {
+                for (Entry entry : e.getValue()) {
+                    puzzles.add(entry.puzzle);
+                    levels.add(e.getKey());
+                    createdAt.add(entry.createdAt);
+                }
+            }
+        }
+        try {
+            PuzzleStore.write(file, puzzles, levels, createdAt);
+        } catch (IOException ignored) {
+            // Pas grave : la réserve sera régénérée au prochain lancement
+        }
+    }
+
+    private boolean needsRefill() {
+        for (ArrayDeque<Entry> queue : ready.values()) {
+            if (queue.size() < CAPACITY) return true;
+        }
+        return false;
+    }
+
+    private static void evictStale(ArrayDeque<Entry> queue, long now) {
+        // Les entrées sont ajoutées dans l'ordre : les plus anciennes sont en tête
+        while (!queue.isEmpty() && now - queue.peekFirst().createdAt > MAX_AGE_MS) {
+            queue.pollFirst();
+        }
+    }
+}
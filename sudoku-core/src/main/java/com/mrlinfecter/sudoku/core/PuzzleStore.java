@@ -0,0 +1,164 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Format binaire compact pour des paires grille/solution.
+ *
+ * En-tête (12 octets) : magic "SDKP", version (short), taille d'un enregistrement (short), nombre (int).
+ * Enregistrement (61 octets, taille fixe donc accès direct au i-ème) :
+ *  - 41 octets : les 81 chiffres de la solution, un par demi-octet ;
+ *  - 11 octets : bitmap des 81 cases données dans la grille ;
+ *  - 1 octet   : difficulté (ordinal de {@link Difficulty}, 0xFF si inconnue) ;
+ *  - 8 octets  : date de création de la grille (ms, 0 si inconnue), jamais changée par une réécriture.
+ */
+public final class PuzzleStore {
+    private static final int MAGIC = 0x53444B50; // "SDKP"
+    private static final short VERSION = 2; // 2 : date de création par enregistrement
+    static final int HEADER_SIZE = 12;
+    static final int DIGITS_SIZE = (SudokuBoard.CELLS + 1) / 2;   // 41
+    static final int CLUES_SIZE = (SudokuBoard.CELLS + 7) / 8;    // 11
+    static final int RECORD_SIZE = DIGITS_SIZE + CLUES_SIZE + 1 + 8;  // 61
+    private static final int NO_DIFFICULTY = 0xFF;
+
+    private PuzzleStore() {
+    }
+
+    // Écrit dans un fichier temporaire puis renomme : un crash ne laisse jamais un fichier à moitié écrit
+    public static void write(File file, List<Puzzle> puzzles, List<Difficulty> levels) throws IOException {
+        write(file, puzzles, levels, null);
+    }
+
+    // createdAt : date de création de chaque grille (null = inconnues)
+    public static void write(File file, List<Puzzle> puzzles, List<Difficulty> levels, List<Long> createdAt)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE * puzzles.size());
+        buf.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putInt(puzzles.size());
+        for (int i = 0; i < puzzles.size(); i++) {
+            Difficulty level = levels == null ? null : levels.get(i);
+            encode(puzzles.get(i), level, createdAt == null ? 0L : createdAt.get(i), buf);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(buf.array());
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Impossible de renommer " + tmp);
+        }
+    }
+
+    static void encode(Puzzle puzzle, Difficulty level, long createdAt, ByteBuffer buf) {
+        int start = buf.position();
+        for (int i = 0; i < DIGITS_SIZE; i++) {
+            int lo = digit(puzzle.solution, 2 * i);
+            int hi = 2 * i + 1 < SudokuBoard.CELLS ? digit(puzzle.solution, 2 * i + 1) : 0;
+            buf.put((byte) (lo | hi << 4));
+        }
+        for (int i = 0; i < CLUES_SIZE; i++) {
+            int bits = 0;
+            for (int b = 0; b < 8; b++) {
+                int cell = i * 8 + b;
+                if (cell < SudokuBoard.CELLS && digit(puzzle.grid, cell) != 0) bits |= 1 << b;
+            }
+            buf.put((byte) bits);
+        }
+        buf.put((byte) (level == null ? NO_DIFFICULTY : level.ordinal()));
+        buf.putLong(createdAt);
+        if (buf.position() - start != RECORD_SIZE) throw new IllegalStateException();
+    }
+
+    private static int digit(int[][] grid, int cell) {
+        return grid[cell / SudokuBoard.SIZE][cell % SudokuBoard.SIZE];
+    }
+
+    public static Reader open(File file) throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * Lecture en accès direct sur le fichier projeté en mémoire : rien n'est parsé à l'ouverture,
+     * chaque grille est décodée à la demande (éventuellement dans des tableaux réutilisés).
+     */
+    public static final class Reader implements Closeable {
+        private final RandomAccessFile raf;
+        private final MappedByteBuffer map;
+        private final int count;
+
+        private Reader(File file) throws IOException {
+            raf = new RandomAccessFile(file, "r");
+            try {
+                map = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+                if (map.limit() < HEADER_SIZE || map.getInt(0) != MAGIC) {
+                    throw new IOException("Fichier de grilles invalide : " + file);
+                }
+                if (map.getShort(4) != VERSION || map.getShort(6) != RECORD_SIZE) {
+                    throw new IOException("Version de fichier non supportée : " + file);
+                }
+                count = map.getInt(8);
+                if (count < 0 || HEADER_SIZE + (long) count * RECORD_SIZE > map.limit()) {
+                    throw new IOException("Fichier de grilles tronqué : " + file);
+                }
+            } catch (IOException e) {
+                raf.close();
+                throw e;
+            }
+        }
+
+        public int size() {
+            return count;
+        }
+
+        // Difficulté de l'enregistrement, null si inconnue
+        public Difficulty difficulty(int index) {
+            int level = map.get(offset(index) + DIGITS_SIZE + CLUES_SIZE) & 0xFF;
+            return level < Difficulty.values().length ? Difficulty.values()[level] : null;
+        }
+
+        // Date de création de la grille (ms), 0 si inconnue
+        public long createdAt(int index) {
+            return map.getLong(offset(index) + DIGITS_SIZE + CLUES_SIZE + 1);
+        }
+
+        public Puzzle get(int index) {
+            int[][] grid = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+            int[][] solution = new int[SudokuBoard.SIZE][SudokuBoard.SIZE];
+            read(index, grid, solution);
+            return new Puzzle(grid, solution);
+        }
+
+        // Décode l'enregistrement dans des tableaux fournis par l'appelant (aucune allocation)
+        public void read(int index, int[][] grid, int[][] solution) {
+            int base = offset(index);
+            for (int cell = 0; cell < SudokuBoard.CELLS; cell++) {
+                int packed = map.get(base + (cell >> 1)) & 0xFF;
+                int value = (cell & 1) == 0 ? packed & 0x0F : packed >>> 4;
+                boolean clue = (map.get(base + DIGITS_SIZE + (cell >> 3)) & (1 << (cell & 7))) != 0;
+                int r = cell / SudokuBoard.SIZE;
+                int c = cell % SudokuBoard.SIZE;
+                solution[r][c] = value;
+                grid[r][c] = clue ? value : 0;
+            }
+        }
+
+        private int offset(int index) {
+            if (index < 0 || index >= count) throw new IndexOutOfBoundsException("index " + index);
+            return HEADER_SIZE + index * RECORD_SIZE;
+        }
+
+        @Override
+        public void close() throws IOException {
+            raf.close();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Historique des parties terminées et statistiques par difficulté.
+ * Chaque partie gagnée est ajoutée au fichier (enregistrements de taille fixe, en ajout seul) ;
+ * les statistiques (record, médiane, séries) sont tenues à jour à chaque ajout,
+ * elles ne parcourent jamais l'historique.
+ *
+ * Fichier : magic "SDKR" (int), version (short), taille d'un enregistrement (short),
+ * puis des enregistrements de 20 octets : difficulté (byte), drapeaux (byte),
+ * erreurs (short), score (int), temps en secondes (int), date de fin (long, ms).
+ */
+public class RecordsStore {
+    private static final int MAGIC = 0x53444B52; // "SDKR"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 20;
+    private static final int FLAG_HELP = 1;
+    private static final int FLAG_IMPORTED = 2; // ancien record des préférences : compte pour le record seulement
+
+    private static RecordsStore instance;
+
+    public static synchronized RecordsStore getInstance() {
+        if (instance == null) instance = new RecordsStore();
+        return instance;
+    }
+
+    /** Une partie terminée. */
+    public static final class GameRecord {
+        public final Difficulty difficulty;
+        public final int score;
+        public final int seconds;
+        public final boolean help;
+        public final int mistakes;
+        public final long finishedAt;
+        final boolean imported;
+
+        GameRecord(Difficulty difficulty, int score, int seconds, boolean help, int mistakes,
+                   long finishedAt, boolean imported) {
+            this.difficulty = difficulty;
+            this.score = score;
+            this.seconds = seconds;
+            this.help = help;
+            this.mistakes = mistakes;
+            this.finishedAt = finishedAt;
+            this.imported = imported;
+        }
+    }
+
+    /** Statistiques d'une difficulté, mises à jour à chaque partie ajoutée. */
+    public static final class Stats {
+        private int games = 0;
+        private int bestScore = 0;
+        private int bestTime = Integer.MAX_VALUE; // temps de la partie record
+        private int fastest = Integer.MAX_VALUE;
+        private long totalSeconds = 0;
+        private int streak = 0;     // parties gagnées d'affilée sans aide
+        private int bestStreak = 0;
+        // Médiane des scores : moitié basse (tas max) et moitié haute (tas min)
+        private final PriorityQueue<Integer> lower = new PriorityQueue<>(Collections.reverseOrder());
+        private final PriorityQueue<Integer> upper = new PriorityQueue<>();
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getBestScore() {
+            return bestScore;
+        }
+
+        // Integer.MAX_VALUE tant qu'aucune partie n'est enregistrée
+        public int getBestTime() {
+            return bestTime;
+        }
+
+        public int getFastest() {
+            return fastest;
+        }
+
+        public int getAverageSeconds() {
+            return games == 0 ? 0 : (int) (totalSeconds / games);
+        }
+
+        public int getMedianScore() {
+            if (lower.isEmpty()) return 0;
+            if (lower.size() > upper.size()) return lower.peek();
+            return (lower.peek() + upper.peek()) / 2;
+        }
+
+        public int getStreak() {
+            return streak;
+        }
+
+        public int getBestStreak() {
+            return bestStreak;
+        }
+
+        // Même règle qu'avant : meilleur score, ou même score en moins de temps
+        public boolean isRecord(int score, int seconds) {
+            return score > bestScore || (score == bestScore && seconds < bestTime);
+        }
+
+        private void add(GameRecord r) {
+            if (isRecord(r.score, r.seconds)) {
+                bestScore = r.score;
+                bestTime = r.seconds;
+            }
+            if (r.imported) return;
+
+            games++;
+            totalSeconds += r.seconds;
+            fastest = Math.min(fastest, r.seconds);
+            streak = r.help ? 0 : streak + 1;
+            bestStreak = Math.max(bestStreak, streak);
+
+            if (lower.isEmpty() || r.score <= lower.peek()) lower.add(r.score);
+            else upper.add(r.score);
+            // Rééquilibrage : lower a autant d'éléments que upper, ou un de plus
+            if (lower.size() > upper.size() + 1) upper.add(lower.poll());
+            else if (upper.size() > lower.size()) lower.add(upper.poll());
+        }
+    }
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "RecordsStore-write");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<Difficulty, Stats> stats = new EnumMap<>(Difficulty.class);
+    private final Map<Difficulty, List<GameRecord>> history = new EnumMap<>(Difficulty.class);
+    private File file = null;
+    private boolean writeFailed = false; // lu et écrit sur le thread d'écriture seulement
+
+    RecordsStore() {
+        for (Difficulty d : Difficulty.values()) {
+            stats.put(d, new Stats());
+            history.put(d, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Lit l'historique (une seule fois par processus ; quelques Ko, lecture directe).
+     * Renvoie false si le fichier n'existait pas encore : l'appelant peut alors importer les anciens records.
+     * Un fichier dont l'en-tête est invalide est mis de côté (".bad") : les parties suivantes
+     * repartent d'un fichier neuf au lieu de s'ajouter derrière un en-tête illisible.
+     */
+    public synchronized boolean attach(File file) {
+        if (this.file != null) return true;
+        this.file = file;
+        if (!file.isFile()) return false;
+
+        byte[] bytes = new byte[(int) file.length()];
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readFully(bytes);
+        } catch (IOException e) {
+            return true; // illisible pour l'instant : on ne réimporte pas par-dessus
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buf.getInt() != MAGIC
+                || buf.getShort() != VERSION || buf.getShort() != RECORD_SIZE) {
+            setAside(file);
+            return true; // pas de réimport : les anciens records sont peut-être dans le fichier écarté
+        }
+        while (buf.remaining() >= RECORD_SIZE) {
+            GameRecord r = decode(buf);
+            if (r != null) index(r);
+        }
+        if (buf.remaining() > 0) {
+            // Enregistrement coupé par un crash : on le retire pour que les ajouts suivants restent alignés
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(buf.position());
+            } catch (IOException ignored) {
+            }
+        }
+        return true;
+    }
+
+    private static void setAside(File file) {
+        File bad = new File(file.getPath() + ".bad");
+        bad.delete();
+        if (!file.renameTo(bad)) file.delete();
+    }
+
+    public synchronized Stats stats(Difficulty difficulty) {
+        return stats.get(difficulty);
+    }
+
+    /** Parties de la difficulté, de la plus ancienne à la plus récente (liste non modifiable). */
+    public synchronized List<GameRecord> history(Difficulty difficulty) {
+        return Collections.unmodifiableList(new ArrayList<>(history.get(difficulty)));
+    }
+
+    /** Ajoute une partie gagnée ; renvoie true si c'est un nouveau record. */
+    public synchronized boolean add(Difficulty difficulty, int score, int seconds, boolean help, int mistakes) {
+        boolean record = stats.get(difficulty).isRecord(score, seconds);
+        append(new GameRecord(difficulty, score, seconds, help, mistakes, System.currentTimeMillis(), false));
+        return record;
+    }
+
+    /** Reprend un record d'avant l'historique : il compte pour le record, pas pour les moyennes ni les séries. */
+    public synchronized void importBest(Difficulty difficulty, int score, int seconds) {
+        if (score <= 0 && seconds == Integer.MAX_VALUE) return;
+        append(new GameRecord(difficulty, score, seconds, false, 0, 0L, true));
+    }
+
+    private void append(GameRecord r) {
+        index(r);
+        if (file == null) return;
+        File target = file;
+        ByteBuffer buf = ByteBuffer.allocate(RECORD_SIZE);
+        encode(r, buf);
+        byte[] bytes = buf.array();
+        writer.execute(() -> write(target, bytes));
+    }
+
+    private void index(GameRecord r) {
+        stats.get(r.difficulty).add(r);
+        if (!r.imported) history.get(r.difficulty).add(r);
+    }
+
+    /**
+     * Lance action sur le thread d'écriture une fois les parties déjà ajoutées écrites et
+     * synchronisées sur le disque ; jamais si une écriture a échoué.
+     * Sert à effacer une ancienne copie seulement quand le fichier la remplace vraiment.
+     */
+    public void whenWritten(Runnable action) {
+        writer.execute(() -> {
+            if (!writeFailed) action.run();
+        });
+    }
+
+    // Attend que les écritures déjà programmées soient faites (tests)
+    void awaitWrites() throws InterruptedException, ExecutionException {
+        writer.submit(() -> { }).get();
+    }
+
+    private void write(File file, byte[] record) {
+        boolean fresh = !file.exists() || file.length() < HEADER_SIZE;
+        try (FileOutputStream out = new FileOutputStream(file, !fresh)) {
+            if (fresh) {
+                out.write(ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).array());
+            }
+            out.write(record);
+            out.getFD().sync();
+        } catch (IOException e) {
+            writeFailed = true; // la partie reste comptée pour cette session
+        }
+    }
+
+    private static void encode(GameRecord r, ByteBuffer buf) {
+        buf.put((byte) r.difficulty.ordinal())
+                .put((byte) ((r.help ? FLAG_HELP : 0) | (r.imported ? FLAG_IMPORTED : 0)))
+                .putShort((short) Math.min(r.mistakes, Short.MAX_VALUE))
+                .putInt(r.score).putInt(r.seconds).putLong(r.finishedAt);
+    }
+
+    private static GameRecord decode(ByteBuffer buf) {
+        int level = buf.get() & 0xFF;
+        int flags = buf.get();
+        int mistakes = buf.getShort();
+        int score = buf.getInt();
+        int seconds = buf.getInt();
+        long finishedAt = buf.getLong();
+        if (level >= Difficulty.values().length) return null;
+        return new GameRecord(Difficulty.values()[level], score, seconds, (flags & FLAG_HELP) != 0,
+                mistakes, finishedAt, (flags & FLAG_IMPORTED) != 0);
+    }
+}
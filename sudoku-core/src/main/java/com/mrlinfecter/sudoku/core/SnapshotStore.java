@@ -0,0 +1,86 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sauvegarde de la partie en cours, hors du thread UI.
+ * save() garde la photo en mémoire et programme une écriture : si plusieurs coups
+ * arrivent pendant une écriture, seule la dernière photo est écrite ensuite.
+ * load() renvoie la photo en mémoire si elle existe (écriture peut-être encore en cours,
+ * par exemple après une rotation), sinon celle du fichier.
+ */
+public class SnapshotStore {
+    private static SnapshotStore instance;
+
+    public static synchronized SnapshotStore getInstance() {
+        if (instance == null) instance = new SnapshotStore();
+        return instance;
+    }
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "SnapshotStore-write");
+        t.setDaemon(true);
+        return t;
+    });
+    private File file = null;
+    private GameSnapshot latest = null;  // dernière photo connue (null = rien, ou effacée)
+    private boolean loaded = false;      // latest reflète déjà le fichier
+    private boolean pending = false;     // une écriture est programmée
+
+    private SnapshotStore() {
+    }
+
+    public synchronized void attach(File file) {
+        if (this.file != null) return;
+        this.file = file;
+    }
+
+    public synchronized GameSnapshot load() {
+        if (!loaded && file != null) {
+            latest = GameSnapshot.read(file);
+            loaded = true;
+        }
+        return latest;
+    }
+
+    public synchronized void save(GameSnapshot snapshot) {
+        latest = snapshot;
+        loaded = true;
+        schedule();
+    }
+
+    // Partie terminée : plus rien à reprendre
+    public synchronized void clear() {
+        latest = null;
+        loaded = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (file == null || pending) return;
+        pending = true;
+        writer.execute(this::flush);
+    }
+
+    private void flush() {
+        File target;
+        GameSnapshot snapshot;
+        synchronized (this) {
+            pending = false;
+            target = file;
+            snapshot = latest;
+        }
+        try {
+            if (snapshot == null) {
+                target.delete();
+            } else {
+                GameSnapshot.write(target, snapshot);
+            }
+        } catch (IOException ignored) {
+            // La photo reste en mémoire : le prochain coup retentera l'écriture
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mrlinfecter.sudoku.core;
+
+/**
+ * Grille 9x9 avec masques de chiffres par ligne, colonne et bloc.
+ * Les masques sont mis à jour à chaque place/unplace : le test d'un candidat
+ * est un simple ET binaire au lieu de rescanner la ligne, la colonne et le bloc.
+ * Le bit (d - 1) d'un masque indique que le chiffre d est déjà utilisé.
+ */
+public class SudokuBoard {
+    public static final int SIZE = 9;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int ALL = 0x1FF; // les 9 chiffres
+
+    // Précalculs index -> ligne / colonne / bloc
+    static final int[] ROW = new int[CELLS];
+    static final int[] COL = new int[CELLS];
+    static final int[] BOX = new int[CELLS];
+    // Les 27 unités : 9 lignes, 9 colonnes puis 9 blocs
+    static final int[][] UNITS = new int[3 * SIZE][SIZE];
+    // Les 20 voisines de chaque case (même ligne, colonne ou bloc)
+    static final int[][] PEERS = new int[CELLS][20];
+
+    static {
+        for (int i = 0; i < CELLS; i++) {
+            ROW[i] = i / SIZE;
+            COL[i] = i % SIZE;
+            BOX[i] = (ROW[i] / 3) * 3 + COL[i] / 3;
+        }
+        int[] fill = new int[3 * SIZE];
+        for (int i = 0; i < CELLS; i++) {
+            UNITS[ROW[i]][fill[ROW[i]]++] = i;
+            UNITS[SIZE + COL[i]][fill[SIZE + COL[i]]++] = i;
+            UNITS[2 * SIZE + BOX[i]][fill[2 * SIZE + BOX[i]]++] = i;
+        }
+        for (int i = 0; i < CELLS; i++) {
+            int n = 0;
+            for (int j = 0; j < CELLS; j++) {
+                if (j != i && (ROW[j] == ROW[i] || COL[j] == COL[i] || BOX[j] == BOX[i])) PEERS[i][n++] = j;
+            }
+        }
+    }
+
+    private final int[] cells = new int[CELLS];
+    private final int[] rowMask = new int[SIZE];
+    private final int[] colMask = new int[SIZE];
+    private final int[] boxMask = new int[SIZE];
+    private int filled = 0;
+
+    public SudokuBoard() {
+    }
+
+    public SudokuBoard(int[][] grid) {
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (grid[r][c] != 0) place(r * SIZE + c, grid[r][c]);
+            }
+        }
+    }
+
+    public SudokuBoard(SudokuBoard other) {
+        System.arraycopy(other.cells, 0, cells, 0, CELLS);
+        System.arraycopy(other.rowMask, 0, rowMask, 0, SIZE);
+        System.arraycopy(other.colMask, 0, colMask, 0, SIZE);
+        System.arraycopy(other.boxMask, 0, boxMask, 0, SIZE);
+        filled = other.filled;
+    }
+
+    public int get(int index) {
+        return cells[index];
+    }
+
+    public int get(int row, int col) {
+        return cells[row * SIZE + col];
+    }
+
+    public boolean isEmpty(int index) {
+        return cells[index] == 0;
+    }
+
+    public int filledCount() {
+        return filled;
+    }
+
+    public boolean isFull() {
+        return filled == CELLS;
+    }
+
+    /** Masque des chiffres encore possibles pour la case (0 si la case est remplie). */
+    public int candidates(int index) {
+        if (cells[index] != 0) return 0;
+        return ~(rowMask[ROW[index]] | colMask[COL[index]] | boxMask[BOX[index]]) & ALL;
+    }
+
+    public int candidateCount(int index) {
+        return Integer.bitCount(candidates(index));
+    }
+
+    public boolean canPlace(int index, int digit) {
+        return (candidates(index) & (1 << (digit - 1))) != 0;
+    }
+
+    public void place(int index, int digit) {
+        int bit = 1 << (digit - 1);
+        cells[index] = digit;
+        rowMask[ROW[index]] |= bit;
+        colMask[COL[index]] |= bit;
+        boxMask[BOX[index]] |= bit;
+        filled++;
+    }
+
+    public void unplace(int index) {
+        int digit = cells[index];
+        if (digit == 0) return;
+        int bit = ~(1 << (digit - 1));
+        cells[index] = 0;
+        rowMask[ROW[index]] &= bit;
+        colMask[COL[index]] &= bit;
+        boxMask[BOX[index]] &= bit;
+        filled--;
+    }
+
+    public int[][] toArray() {
+        int[][] grid = new int[SIZE][SIZE];
+        for (int i = 0; i < CELLS; i++) {
+            grid[ROW[i]][COL[i]] = cells[i];
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,345 @@
+package com.mrlinfecter.sudoku.core;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+public class SudokuGenerator {
+
+    // Façon de vérifier l'unicité après chaque case retirée
+    public enum Carving {
+        FULL_COUNT,  // recompte complet des solutions (jusqu'à 2)
+        INCREMENTAL  // la solution est connue : on cherche seulement une autre valeur pour la case retirée
+    }
+
+    /** Résultat d'un creusage borné dans le temps. */
+    public static final class CarveResult {
+        public final int[][] grid;       // toujours à solution unique
+        public final int holes;          // cases vidées
+        public final int targetHoles;    // cases demandées
+        public final long elapsedNanos;
+        public final boolean timedOut;   // arrêté par le budget (sinon : cible atteinte ou plus de case retirable)
+
+        CarveResult(int[][] grid, int holes, int targetHoles, long elapsedNanos, boolean timedOut) {
+            this.grid = grid;
+            this.holes = holes;
+            this.targetHoles = targetHoles;
+            this.elapsedNanos = elapsedNanos;
+            this.timedOut = timedOut;
+        }
+
+        public boolean reachedTarget() {
+            return holes >= targetHoles;
+        }
+    }
+
+    private static final int CELLS = SudokuBoard.CELLS;
+    static final int MIN_HOLES = 20; // en deçà, la grille est triviale quel que soit le niveau
+    private static final int MAX_HOLES = 64; // au-delà le creusage ne trouve quasiment plus de case retirable
+
+    // SplitMix64 : un seul générateur pour tout le chemin chaud, aucune allocation par appel
+    private SplittableRandom rand = new SplittableRandom();
+    private final SudokuSolver solver;
+    private final BacktrackingSolver filler = new BacktrackingSolver();
+    private Carving carving = Carving.INCREMENTAL;
+    private final DifficultyRater rater = new DifficultyRater();
+
+    // Carving parallèle : null = séquentiel
+    private ForkJoinPool pool = null;
+    // Solveurs des tests parallèles, gardés par le générateur et non par les threads du pool
+    // (ceux du pool commun vivent aussi longtemps que le processus) : un test en emprunte un
+    // libre et le rend, il y en a au plus autant que de tests simultanés
+    private final List<SudokuSolver> workerSolvers = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<SudokuSolver> idleSolvers = new ConcurrentLinkedQueue<>();
+
+    public SudokuGenerator() {
+        this(new DancingLinksSolver());
+    }
+
+    // Permet de choisir le moteur utilisé pour les tests d'unicité
+    public SudokuGenerator(SudokuSolver solver) {
+        this.solver = solver;
+    }
+
+    public void setCarving(Carving carving) {
+        this.carving = carving;
+    }
+
+    /**
+     * Teste les suppressions par lots sur le pool, chaque case sur sa propre copie de la grille.
+     * Le résultat est identique au mode séquentiel pour le même ordre de cases.
+     */
+    public void setParallel(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Toute la suite de tirages est déterminée par la graine
+    public void setSeed(long seed) {
+        rand = new SplittableRandom(seed);
+    }
+
+    /** Grille et solution reproductibles : la même graine donne toujours la même grille. */
+    public Puzzle generate(long seed, int emptyCells) {
+        return generate(seed, emptyCells, Long.MAX_VALUE);
+    }
+
+    // Même grille que generate(seed, emptyCells) si le creusage finit dans le budget ;
+    // sinon au moins MIN_HOLES cases vides, budget dépassé ou non
+    private Puzzle generate(long seed, int emptyCells, long budgetNanos) {
+        setSeed(seed);
+        int[][] solution = generateSolution();
+        int minHoles = Math.min(MIN_HOLES, emptyCells);
+        return new Puzzle(carve(solution, emptyCells, minHoles, budgetNanos).grid, solution);
+    }
+
+    /**
+     * Grille reproductible dont la difficulté ressentie (DifficultyRater) correspond au niveau.
+     * Chaque essai part d'une graine dérivée, en partant du nombre de cases vides du niveau ;
+     * l'essai suivant creuse moins si la grille est notée trop difficile, plus si elle est
+     * trop facile (deux cases par niveau d'écart). Après maxAttempts essais on garde
+     * la grille la plus proche du niveau visé.
+     */
+    public Puzzle generate(long seed, Difficulty target, int maxAttempts) {
+        return generate(seed, target, maxAttempts, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Même génération, avec deux façons de s'arrêter :
+     * - au bout de budgetNanos, on rend la meilleure grille trouvée (au moins un essai est toujours fait) ;
+     *   le creusage de l'essai en cours est lui aussi borné, il rend une grille à moins de cases vides,
+     *   mais jamais moins de MIN_HOLES : le joueur qui attend n'a pas une grille presque pleine ;
+     * - si stop répond true, la génération est abandonnée et on rend null.
+     * Tant qu'aucune des deux ne joue, le résultat est le même qu'avec generate(seed, target, maxAttempts).
+     */
+    public Puzzle generate(long seed, Difficulty target, int maxAttempts, long budgetNanos, BooleanSupplier stop) {
+        long start = System.nanoTime();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        Puzzle best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int holes = target.emptyCells;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (stop != null && stop.getAsBoolean()) return null;
+            long spent = System.nanoTime() - start;
+            if (best != null && spent >= budgetNanos) break;
+            long left = budgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(0, budgetNanos - spent);
+            Puzzle puzzle = generate(seeds.nextLong(), holes, left);
+            Difficulty rated = rater.rate(puzzle.grid).difficulty();
+            int error = target.ordinal() - rated.ordinal(); // > 0 : trop facile
+            int distance = Math.abs(error);
+            if (distance == 0) return puzzle;
+            if (distance < bestDistance) {
+                best = puzzle;
+                bestDistance = distance;
+            }
+            holes = Math.max(MIN_HOLES, Math.min(MAX_HOLES, holes + 2 * error));
+        }
+        return best;
+    }
+
+    public int[][] generateSolution() {
+        SudokuBoard board = new SudokuBoard();
+        fillGrid(board);
+        return board.toArray();
+    }
+
+    public int[][] generatePuzzle(int[][] solution, int emptyCells) {
+        return generatePuzzle(solution, emptyCells, Long.MAX_VALUE).grid;
+    }
+
+    /**
+     * Creusage "à tout moment" : chaque case retirée garde la solution unique, donc la grille
+     * en cours est toujours jouable. À l'échéance on rend celle-ci, avec le nombre de cases
+     * réellement vidées ; avec un budget suffisant le résultat est celui de generatePuzzle.
+     */
+    public CarveResult generatePuzzle(int[][] solution, int emptyCells, long budgetNanos) {
+        return carve(solution, emptyCells, 0, budgetNanos);
+    }
+
+    // Le budget n'est regardé qu'une fois minHoles cases vidées
+    private CarveResult carve(int[][] solution, int emptyCells, int minHoles, long budgetNanos) {
+        long start = System.nanoTime();
+        SudokuBoard puzzle = new SudokuBoard(solution);
+        int removed = 0;
+
+        // NOUVEAU : Créer un ordre de suppression aléatoire pour les 81 cases
+        int[] indices = new int[CELLS];
+        for(int i = 0; i < indices.length; i++) indices[i] = i;
+
+        // Mélanger les indices (Fisher-Yates)
+        for (int i = indices.length - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+
+        if (pool != null) {
+            removed = carveParallel(puzzle, indices, emptyCells, minHoles, start, budgetNanos);
+            return result(puzzle, removed, emptyCells, start, budgetNanos);
+        }
+
+        // Parcourir dans l'ordre aléatoire
+        for (int index : indices) {
+            if (removed >= emptyCells) break;
+            if (removed >= minHoles && System.nanoTime() - start >= budgetNanos) break;
+
+            if (!puzzle.isEmpty(index)) {
+                int backup = puzzle.get(index);
+                puzzle.unplace(index);
+
+                // Vérifie si la grille a toujours UNE solution unique
+                if (!isStillUnique(solver, puzzle, index, backup)) {
+                    puzzle.place(index, backup); // rollback
+                } else {
+                    removed++;
+                }
+            }
+        }
+        return result(puzzle, removed, emptyCells, start, budgetNanos);
+    }
+
+    private static CarveResult result(SudokuBoard puzzle, int removed, int emptyCells, long start, long budgetNanos) {
+        long elapsed = System.nanoTime() - start;
+        boolean timedOut = removed < emptyCells && elapsed >= budgetNanos;
+        return new CarveResult(puzzle.toArray(), removed, emptyCells, elapsed, timedOut);
+    }
+
+    /*
+     * Un lot de cases est testé en parallèle contre la même grille, puis validé dans l'ordre :
+     * - un refus est définitif (retirer d'autres cases ne fait qu'ajouter des solutions) ;
+     * - la première case acceptée du lot est retirée telle quelle ;
+     * - les suivantes ont été testées sur une grille qui a changé depuis : on les revérifie
+     *   sur la grille courante (quelques nœuds en mode incrémental).
+     * On obtient donc exactement les mêmes retraits que le parcours séquentiel.
+     */
+    private int carveParallel(SudokuBoard puzzle, int[] indices, int emptyCells, int minHoles,
+                              long start, long budgetNanos) {
+        int batchSize = Math.max(2, pool.getParallelism() * 2);
+        boolean[] accepted = new boolean[batchSize];
+        int[] batch = new int[batchSize];
+        int removed = 0;
+        int next = 0;
+
+        while (removed < emptyCells && next < indices.length) {
+            if (removed >= minHoles && System.nanoTime() - start >= budgetNanos) break;
+            int n = 0;
+            while (n < batchSize && next < indices.length) {
+                int index = indices[next++];
+                if (!puzzle.isEmpty(index)) batch[n++] = index;
+            }
+            if (n == 0) break;
+
+            pool.invoke(new ProbeTask(puzzle, batch, accepted, 0, n));
+
+            boolean committed = false;
+            for (int i = 0; i < n && removed < emptyCells; i++) {
+                if (!accepted[i]) continue;
+                int index = batch[i];
+                int backup = puzzle.get(index);
+                puzzle.unplace(index);
+                if (committed && !isStillUnique(solver, puzzle, index, backup)) {
+                    puzzle.place(index, backup); // rollback
+                    continue;
+                }
+                committed = true;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // Teste chaque case du lot sur une copie de la grille, en découpant le lot façon fork/join
+    private class ProbeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SudokuBoard puzzle;
+        private final int[] batch;
+        private final boolean[] accepted;
+        private final int from, to;
+
+        ProbeTask(SudokuBoard puzzle, int[] batch, boolean[] accepted, int from, int to) {
+            this.puzzle = puzzle;
+            this.batch = batch;
+            this.accepted = accepted;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ProbeTask(puzzle, batch, accepted, from, mid),
+                        new ProbeTask(puzzle, batch, accepted, mid, to));
+                return;
+            }
+            int index = batch[from];
+            SudokuBoard copy = new SudokuBoard(puzzle);
+            int backup = copy.get(index);
+            copy.unplace(index);
+            SudokuSolver s = idleSolvers.poll();
+            if (s == null) {
+                s = solver.fork();
+                workerSolvers.add(s);
+            }
+            try {
+                accepted[from] = isStillUnique(s, copy, index, backup);
+            } finally {
+                idleSolvers.offer(s);
+            }
+        }
+    }
+
+    // La case index (qui valait known) vient d'être vidée : la grille a-t-elle toujours une seule solution ?
+    private boolean isStillUnique(SudokuSolver solver, SudokuBoard board, int index, int known) {
+        return carving == Carving.INCREMENTAL
+                ? !hasAlternative(solver, board, index, known)
+                : hasUniqueSolution(solver, board);
+    }
+
+    private static boolean hasUniqueSolution(SudokuSolver solver, SudokuBoard board) {
+        // Plus besoin de copie : le solveur rend la grille dans son état initial
+        return solver.countSolutions(board, 2) == 1;
+    }
+
+    /**
+     * La grille avait une solution unique avant de vider la case index (qui valait known).
+     * Une deuxième solution doit forcément mettre un autre chiffre dans cette case :
+     * on essaie chaque autre candidat et on s'arrête à la première solution trouvée.
+     * En pratique chaque essai est réfuté en quelques nœuds.
+     */
+    private static boolean hasAlternative(SudokuSolver solver, SudokuBoard board, int index, int known) {
+        int mask = board.candidates(index) & ~(1 << (known - 1));
+        while (mask != 0) {
+            int bit = mask & -mask;
+            mask ^= bit;
+            board.place(index, Integer.numberOfTrailingZeros(bit) + 1);
+            int found = solver.countSolutions(board, 1);
+            board.unplace(index);
+            if (found > 0) return true;
+        }
+        return false;
+    }
+
+    private boolean fillGrid(SudokuBoard board) {
+        // Même recherche que le comptage (MRV + singletons), avec un ordre de chiffres aléatoire
+        return filler.fill(board, rand);
+    }
+
+    // Nœuds visités par le remplissage et par les tests d'unicité (pour comparer à graine égale)
+    public long getNodeCount() {
+        long nodes = filler.getNodeCount() + solver.getNodeCount();
+        for (SudokuSolver s : workerSolvers) nodes += s.getNodeCount();
+        return nodes;
+    }
+
+    public void resetNodeCount() {
+        filler.resetNodeCount();
+        solver.resetNodeCount();
+        for (SudokuSolver s : workerSolvers) s.resetNodeCount();
+    }
+}
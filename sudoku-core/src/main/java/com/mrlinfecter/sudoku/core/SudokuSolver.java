@@ -0,0 +1,22 @@
+package com.mrlinfecter.sudoku.core;
+
+/**
+ * Moteur de résolution utilisé pour vérifier l'unicité des grilles.
+ * Les implémentations gardent des tampons internes : une instance par thread.
+ */
+public interface SudokuSolver {
+
+    /**
+     * Compte les solutions de la grille en s'arrêtant dès que {@code limit} est atteint
+     * (2 suffit pour savoir si la solution est unique). La grille est rendue intacte.
+     */
+    int countSolutions(SudokuBoard board, int limit);
+
+    /** Nombre de nœuds de recherche visités depuis le dernier {@link #resetNodeCount()}. */
+    long getNodeCount();
+
+    void resetNodeCount();
+
+    /** Nouvelle instance du même moteur, pour un autre thread. */
+    SudokuSolver fork();
+}
@@ -0,0 +1,49 @@
+package com.mrlinfecter.sudoku.core;
+
+// Vérifications sur une grille 9x9 (0 = case vide)
+public final class SudokuValidator {
+
+    private SudokuValidator() {
+    }
+
+    // La partie est gagnée quand chaque case contient le chiffre de la solution
+    public static boolean isSolved(int[][] grid, int[][] solution) {
+        for (int r = 0; r < SudokuBoard.SIZE; r++) {
+            for (int c = 0; c < SudokuBoard.SIZE; c++) {
+                if (grid[r][c] != solution[r][c]) return false;
+            }
+        }
+        return true;
+    }
+
+    // Aucun chiffre en double dans une ligne, une colonne ou un bloc (les cases vides sont ignorées)
+    public static boolean isConsistent(int[][] grid) {
+        int[] rows = new int[SudokuBoard.SIZE];
+        int[] cols = new int[SudokuBoard.SIZE];
+        int[] boxes = new int[SudokuBoard.SIZE];
+        for (int r = 0; r < SudokuBoard.SIZE; r++) {
+            for (int c = 0; c < SudokuBoard.SIZE; c++) {
+                int value = grid[r][c];
+                if (value == 0) continue;
+                if (value < 1 || value > 9) return false;
+                int bit = 1 << (value - 1);
+                int b = (r / 3) * 3 + c / 3;
+                if ((rows[r] & bit) != 0 || (cols[c] & bit) != 0 || (boxes[b] & bit) != 0) return false;
+                rows[r] |= bit;
+                cols[c] |= bit;
+                boxes[b] |= bit;
+            }
+        }
+        return true;
+    }
+
+    // Grille complète et conforme aux règles
+    public static boolean isValidSolution(int[][] grid) {
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value == 0) return false;
+            }
+        }
+        return isConsistent(grid);
+    }
+}
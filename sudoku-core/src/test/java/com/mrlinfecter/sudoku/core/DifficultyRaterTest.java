@@ -0,0 +1,51 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DifficultyRaterTest {
+
+    @Test
+    public void fewHolesNeedOnlySingles() {
+        SudokuGenerator generator = new SudokuGenerator();
+        DifficultyRater rater = new DifficultyRater();
+        for (long seed = 0; seed < 20; seed++) {
+            DifficultyRater.Rating rating = rater.rate(generator.generate(seed, 30).grid);
+            assertTrue(rating.solved);
+            assertEquals(Difficulty.EASY, rating.difficulty());
+        }
+    }
+
+    @Test
+    public void generatorHitsTargetBand() {
+        SudokuGenerator generator = new SudokuGenerator();
+        DifficultyRater rater = new DifficultyRater();
+        for (Difficulty target : Difficulty.values()) {
+            Puzzle puzzle = generator.generate(42, target, 200);
+            assertEquals(target, rater.rate(puzzle.grid).difficulty());
+        }
+    }
+
+    // Le nombre de cases vides suit l'écart de notation dans les deux sens : chaque niveau est atteint
+    @Test
+    public void generatorHitsTargetBandForManySeeds() {
+        SudokuGenerator generator = new SudokuGenerator();
+        DifficultyRater rater = new DifficultyRater();
+        for (Difficulty target : Difficulty.values()) {
+            for (long seed = 0; seed < 8; seed++) {
+                Puzzle puzzle = generator.generate(seed, target, 40);
+                assertEquals(target, rater.rate(puzzle.grid).difficulty());
+            }
+        }
+    }
+
+    @Test
+    public void ratedGenerationIsReproducible() {
+        Puzzle a = new SudokuGenerator().generate(9, Difficulty.NORMAL, 64);
+        Puzzle b = new SudokuGenerator().generate(9, Difficulty.NORMAL, 64);
+        assertArrayEquals(a.grid, b.grid);
+    }
+}
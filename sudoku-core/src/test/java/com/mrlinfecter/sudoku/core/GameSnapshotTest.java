@@ -0,0 +1,64 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class GameSnapshotTest {
+
+    private static GameState playedGame() {
+        Puzzle puzzle = new SudokuGenerator().generate(3, 45);
+        GameState game = new GameState(puzzle.grid, puzzle.solution);
+        // Un bon coup et une erreur dans les deux premières cases vides
+        int moves = 0;
+        for (int i = 0; i < SudokuBoard.CELLS && moves < 2; i++) {
+            int r = i / SudokuBoard.SIZE, c = i % SudokuBoard.SIZE;
+            if (game.get(r, c) != 0) continue;
+            int good = puzzle.solution[r][c];
+            game.set(r, c, moves == 0 ? good : good % 9 + 1);
+            moves++;
+        }
+        return game;
+    }
+
+    @Test
+    public void roundTripKeepsTheGame() {
+        GameState game = playedGame();
+        GameSnapshot snapshot = GameSnapshot.of(game, 1234, 567, true, 3, Difficulty.HARD);
+        byte[] bytes = snapshot.toBytes();
+        assertEquals(GameSnapshot.SIZE, bytes.length);
+
+        GameSnapshot back = GameSnapshot.fromBytes(bytes);
+        assertArrayEquals(game.getGrid(), back.grid);
+        assertArrayEquals(game.getSolution(), back.solution);
+        assertEquals(1234, back.score);
+        assertEquals(567, back.seconds);
+        assertTrue(back.help);
+        assertEquals(3, back.mistakes);
+        assertEquals(Difficulty.HARD, back.difficulty);
+
+        // Les cases jouées restent modifiables, y compris l'erreur
+        GameState resumed = back.toGameState();
+        for (int r = 0; r < SudokuBoard.SIZE; r++) {
+            for (int c = 0; c < SudokuBoard.SIZE; c++) {
+                assertEquals(game.isGiven(r, c), resumed.isGiven(r, c));
+                assertEquals(game.candidates(r, c), resumed.candidates(r, c));
+            }
+        }
+        assertEquals(game.getEmptyCells(), resumed.getEmptyCells());
+        assertFalse(resumed.isSolved());
+    }
+
+    @Test
+    public void corruptedBytesAreRejected() {
+        byte[] bytes = GameSnapshot.of(playedGame(), 10, 20, false, 0, null).toBytes();
+        assertNull(GameSnapshot.fromBytes(bytes).difficulty);
+        bytes[30] ^= 1;
+        assertNull(GameSnapshot.fromBytes(bytes));
+        assertNull(GameSnapshot.fromBytes(new byte[3]));
+    }
+}
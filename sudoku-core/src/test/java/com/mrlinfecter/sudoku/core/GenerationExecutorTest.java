@@ -0,0 +1,118 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class GenerationExecutorTest {
+
+    @Test
+    public void foregroundPassesQueuedRefills() throws Exception {
+        GenerationExecutor executor = GenerationExecutor.getInstance();
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(4);
+        for (int i = 0; i < 3; i++) {
+            String name = "bg" + i;
+            executor.submit(GenerationExecutor.Priority.BACKGROUND, i, Difficulty.HARD, 8, 0, p -> {
+                order.add(name);
+                done.countDown();
+            });
+        }
+        executor.submit(GenerationExecutor.Priority.FOREGROUND, 9, Difficulty.EASY, 8, 0, p -> {
+            order.add("fg");
+            done.countDown();
+        });
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        // Au plus le remplissage déjà commencé passe avant (s'il finissait son essai en cours)
+        assertTrue(order.toString(), order.indexOf("fg") <= 1);
+    }
+
+    @Test
+    public void cancelledTaskIsNeverDelivered() throws Exception {
+        GenerationExecutor executor = GenerationExecutor.getInstance();
+        // Le thread de génération est retenu : l'annulation arrive forcément avant l'exécution
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(GenerationExecutor.Priority.FOREGROUND, 0, Difficulty.EASY, 1, 0, p -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(busy.await(60, TimeUnit.SECONDS));
+
+        CountDownLatch delivered = new CountDownLatch(1);
+        CountDownLatch after = new CountDownLatch(1);
+        GenerationExecutor.Task task = executor.submit(GenerationExecutor.Priority.FOREGROUND, 1,
+                Difficulty.EXTREME, 64, 0, p -> delivered.countDown());
+        task.cancel();
+        release.countDown();
+        executor.submit(GenerationExecutor.Priority.FOREGROUND, 2, Difficulty.EASY, 1, 0, p -> after.countDown());
+        assertTrue(after.await(60, TimeUnit.SECONDS));
+        assertEquals(1, delivered.getCount());
+        assertTrue(task.isCancelled());
+    }
+
+    @Test
+    public void taskCancelledAfterYieldingIsNeverDelivered() throws Exception {
+        GenerationExecutor executor = GenerationExecutor.getInstance();
+        boolean yielded = false;
+        for (int round = 0; round < 20 && !yielded; round++) {
+            List<String> order = new CopyOnWriteArrayList<>();
+            GenerationExecutor.Task[] refill = new GenerationExecutor.Task[1];
+            refill[0] = executor.submit(GenerationExecutor.Priority.BACKGROUND, 100 + round,
+                    Difficulty.EXTREME, 64, 0, p -> order.add("bg"));
+            Thread.sleep(5); // le remplissage a démarré : la demande du joueur l'interrompt
+            executor.submit(GenerationExecutor.Priority.FOREGROUND, round, Difficulty.EASY, 1, 0, p -> {
+                refill[0].cancel();
+                order.add("fg");
+            });
+            // Deux passages : le second arrive forcément après une éventuelle reprise du remplissage
+            for (int drain = 0; drain < 2; drain++) {
+                CountDownLatch after = new CountDownLatch(1);
+                executor.submit(GenerationExecutor.Priority.BACKGROUND, round, Difficulty.EASY, 1, 0,
+                        p -> after.countDown());
+                assertTrue(after.await(60, TimeUnit.SECONDS));
+            }
+
+            yielded = refill[0].getYields() > 0;
+            // Livré seulement s'il a fini avant la demande du joueur, jamais après son annulation
+            assertTrue(order.toString(), !order.contains("bg") || order.indexOf("bg") < order.indexOf("fg"));
+        }
+        assertTrue(yielded);
+    }
+
+    private static int holes(Puzzle puzzle) {
+        int holes = 0;
+        for (int[] row : puzzle.grid) {
+            for (int v : row) if (v == 0) holes++;
+        }
+        return holes;
+    }
+
+    @Test
+    public void budgetStillYieldsAUniquePuzzle() {
+        SudokuGenerator generator = new SudokuGenerator();
+        // Budget réaliste pour le joueur qui attend : la grille est creusée, et reste à solution unique
+        Puzzle puzzle = generator.generate(5, Difficulty.EXTREME, 64, TimeUnit.MILLISECONDS.toNanos(2), null);
+        assertNotNull(puzzle);
+        assertTrue(holes(puzzle) >= SudokuGenerator.MIN_HOLES);
+        assertEquals(1, new DancingLinksSolver().countSolutions(new SudokuBoard(puzzle.grid), 2));
+
+        // 1 ns : un seul essai, mais le creusage va quand même jusqu'au minimum
+        puzzle = generator.generate(5, Difficulty.EXTREME, 64, 1, null);
+        assertTrue(holes(puzzle) >= SudokuGenerator.MIN_HOLES);
+        assertEquals(1, new DancingLinksSolver().countSolutions(new SudokuBoard(puzzle.grid), 2));
+        assertNull(generator.generate(5, Difficulty.EXTREME, 64, Long.MAX_VALUE, () -> true));
+    }
+}
@@ -0,0 +1,194 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class HintEngineTest {
+
+    // Grille où toutes les cases ont tous les candidats : aucune technique ne s'y applique
+    private static int[] fullCandidates() {
+        int[] cand = new int[SudokuBoard.CELLS];
+        Arrays.fill(cand, SudokuBoard.ALL);
+        return cand;
+    }
+
+    private static int bits(int... digits) {
+        int mask = 0;
+        for (int d : digits) mask |= 1 << (d - 1);
+        return mask;
+    }
+
+    private static void remove(int[] cand, int mask, int... cells) {
+        for (int cell : cells) cand[cell] &= ~mask;
+    }
+
+    // Même masque éliminé dans chaque case de eliminationCells
+    private static void assertHint(HintEngine.Hint hint, HintEngine.Technique technique, int digit,
+                                   int[] cells, int[] eliminationCells, int mask) {
+        assertEquals(technique, hint.technique);
+        assertEquals(digit, hint.digit);
+        assertArrayEquals(cells, hint.cells);
+        assertArrayEquals(eliminationCells, hint.eliminationCells);
+        int[] masks = new int[eliminationCells.length];
+        Arrays.fill(masks, mask);
+        assertArrayEquals(masks, hint.eliminationMasks);
+    }
+
+    @Test
+    public void emptyGridHasNoHint() {
+        assertNull(new HintEngine().find(fullCandidates()));
+    }
+
+    @Test
+    public void hiddenSingle() {
+        // Le 1 n'a plus que la case 0 sur la ligne 0
+        int[] cand = fullCandidates();
+        remove(cand, bits(1), 1, 2, 3, 4, 5, 6, 7, 8);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.HIDDEN_SINGLE, 1,
+                new int[]{0}, new int[0], 0);
+    }
+
+    @Test
+    public void nakedSingle() {
+        int[] cand = fullCandidates();
+        cand[0] = bits(5);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.NAKED_SINGLE, 5,
+                new int[]{0}, new int[0], 0);
+    }
+
+    @Test
+    public void pointing() {
+        // Dans le bloc 0, le 1 ne tient que sur la ligne 0 : il sort du reste de la ligne
+        int[] cand = fullCandidates();
+        remove(cand, bits(1), 9, 10, 11, 18, 19, 20);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.POINTING, 1,
+                new int[]{0, 1, 2}, new int[]{3, 4, 5, 6, 7, 8}, bits(1));
+    }
+
+    @Test
+    public void boxLine() {
+        // Sur la ligne 0, le 1 ne tient que dans le bloc 0 : il sort du reste du bloc
+        int[] cand = fullCandidates();
+        remove(cand, bits(1), 3, 4, 5, 6, 7, 8);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.BOX_LINE, 1,
+                new int[]{0, 1, 2}, new int[]{9, 10, 11, 18, 19, 20}, bits(1));
+    }
+
+    @Test
+    public void nakedPair() {
+        int[] cand = fullCandidates();
+        cand[0] = bits(1, 2);
+        cand[1] = bits(1, 2);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.NAKED_PAIR, 0,
+                new int[]{0, 1}, new int[]{2, 3, 4, 5, 6, 7, 8}, bits(1, 2));
+    }
+
+    @Test
+    public void hiddenPair() {
+        // 1 et 2 confinés aux cases 0 et 3 (blocs différents, pas de réduction bloc / ligne)
+        int[] cand = fullCandidates();
+        remove(cand, bits(1, 2), 1, 2, 4, 5, 6, 7, 8);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.HIDDEN_PAIR, 0,
+                new int[]{0, 3}, new int[]{0, 3}, SudokuBoard.ALL & ~bits(1, 2));
+    }
+
+    @Test
+    public void nakedTriple() {
+        int[] cand = fullCandidates();
+        cand[0] = bits(1, 2);
+        cand[3] = bits(2, 3);
+        cand[6] = bits(1, 3);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.NAKED_TRIPLE, 0,
+                new int[]{0, 3, 6}, new int[]{1, 2, 4, 5, 7, 8}, bits(1, 2, 3));
+    }
+
+    @Test
+    public void hiddenTriple() {
+        int[] cand = fullCandidates();
+        remove(cand, bits(1, 2, 3), 1, 2, 4, 5, 7, 8);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.HIDDEN_TRIPLE, 0,
+                new int[]{0, 3, 6}, new int[]{0, 3, 6}, SudokuBoard.ALL & ~bits(1, 2, 3));
+    }
+
+    @Test
+    public void xWing() {
+        // Lignes 0 et 4 : le 1 ne tient que dans les colonnes 0 et 4
+        int[] cand = fullCandidates();
+        remove(cand, bits(1), 1, 2, 3, 5, 6, 7, 8, 37, 38, 39, 41, 42, 43, 44);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.X_WING, 1,
+                new int[]{0, 36, 4, 40},
+                new int[]{9, 18, 27, 45, 54, 63, 72, 13, 22, 31, 49, 58, 67, 76}, bits(1));
+    }
+
+    @Test
+    public void nakedQuad() {
+        // Aucune paire ni aucun triplet de ces cases ne forme un sous-ensemble
+        int[] cand = fullCandidates();
+        cand[0] = bits(1, 2);
+        cand[1] = bits(1, 4);
+        cand[3] = bits(2, 3);
+        cand[6] = bits(3, 4);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.NAKED_QUAD, 0,
+                new int[]{0, 1, 3, 6}, new int[]{2, 4, 5, 7, 8}, bits(1, 2, 3, 4));
+    }
+
+    @Test
+    public void hiddenQuad() {
+        // 1 à 4 en cycle sur les cases 0, 3, 1, 6 : deux places chacun, jamais dans un seul bloc
+        int[] cand = fullCandidates();
+        remove(cand, bits(1, 2, 3, 4), 2, 4, 5, 7, 8);
+        remove(cand, bits(2, 3), 0);
+        remove(cand, bits(1, 4), 1);
+        remove(cand, bits(3, 4), 3);
+        remove(cand, bits(1, 2), 6);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.HIDDEN_QUAD, 0,
+                new int[]{0, 1, 3, 6}, new int[]{0, 1, 3, 6}, SudokuBoard.ALL & ~bits(1, 2, 3, 4));
+    }
+
+    @Test
+    public void swordfish() {
+        // Lignes 0, 4 et 8 : le 1 tient dans les colonnes 0, 4 et 8, deux places par ligne (pas de X-Wing)
+        int[] cand = fullCandidates();
+        remove(cand, bits(1), 1, 2, 3, 5, 6, 7, 8);
+        remove(cand, bits(1), 36, 37, 38, 39, 41, 42, 43);
+        remove(cand, bits(1), 73, 74, 75, 76, 77, 78, 79);
+        assertHint(new HintEngine().find(cand), HintEngine.Technique.SWORDFISH, 1,
+                new int[]{0, 72, 4, 40, 44, 80},
+                new int[]{9, 18, 27, 45, 54, 63, 13, 22, 31, 49, 58, 67, 17, 26, 35, 53, 62, 71}, bits(1));
+    }
+
+    // Chaque indice doit rester compatible avec la solution, jusqu'au bout de la résolution
+    @Test
+    public void hintsNeverContradictTheSolution() {
+        SudokuGenerator generator = new SudokuGenerator();
+        HintEngine engine = new HintEngine();
+        for (long seed = 0; seed < 30; seed++) {
+            Puzzle puzzle = generator.generate(seed, 55);
+            int[] cand = new int[SudokuBoard.CELLS];
+            CandidateTable table = new CandidateTable(puzzle.grid);
+            for (int i = 0; i < SudokuBoard.CELLS; i++) cand[i] = table.get(i);
+
+            HintEngine.Hint hint;
+            while ((hint = engine.find(cand)) != null) {
+                if (hint.isPlacement()) {
+                    int cell = hint.cells[0];
+                    assertEquals(puzzle.solution[cell / 9][cell % 9], hint.digit);
+                } else {
+                    for (int j = 0; j < hint.eliminationCells.length; j++) {
+                        int cell = hint.eliminationCells[j];
+                        int solutionBit = 1 << (puzzle.solution[cell / 9][cell % 9] - 1);
+                        assertEquals(0, hint.eliminationMasks[j] & solutionBit);
+                        assertNotEquals(0, hint.eliminationMasks[j]);
+                    }
+                }
+                HintEngine.apply(hint, cand);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+public class MoveJournalTest {
+
+    private static int[] emptyCells(GameState game) {
+        int[] cells = new int[game.getEmptyCells()];
+        int n = 0;
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            if (game.get(i / SudokuBoard.SIZE, i % SudokuBoard.SIZE) == 0) cells[n++] = i;
+        }
+        return cells;
+    }
+
+    // Quelques coups justes, une erreur, des annulations : même suite dans la partie et dans le journal
+    private static MoveJournal play(GameState game) {
+        MoveJournal journal = new MoveJournal(GameSnapshot.of(game, 0, 0, false, 0, Difficulty.NORMAL));
+        int[] cells = emptyCells(game);
+        long clock = 0;
+        for (int k = 0; k < 6; k++) {
+            int cell = cells[k];
+            int good = game.getSolution()[cell / 9][cell % 9];
+            clock += 1500;
+            journal.record(cell, good % 9 + 1, MoveJournal.WRONG, -5, clock);
+            game.set(cell / 9, cell % 9, good);
+            journal.record(cell, good, MoveJournal.PLACED, 10, clock += 700);
+        }
+        journal.record(0, 0, MoveJournal.HELP, 0, clock += 100);
+        journal.undo(game, clock += 100);
+        journal.undo(game, clock += 100);
+        journal.redo(game, clock += 100);
+        return journal;
+    }
+
+    @Test
+    public void undoRedoAndReplayAgree() {
+        Puzzle puzzle = new SudokuGenerator().generate(11, 45);
+        GameState game = new GameState(puzzle.grid, puzzle.solution);
+        int before = game.getEmptyCells();
+        MoveJournal journal = play(game);
+
+        assertEquals(before - 5, game.getEmptyCells());
+        assertTrue(journal.canUndo());
+        assertTrue(journal.canRedo());
+        assertArrayEquals(game.getGrid(), journal.replay().getGrid());
+        assertEquals(6 * 5 - 10, journal.getScore()); // deux annulations, une reprise
+        assertEquals(13, journal.getSeconds());
+        assertTrue(journal.isHelpUsed());
+        assertEquals(6, journal.getMistakes());
+
+        // Un nouveau coup après une annulation efface ce qui pouvait être refait
+        int cell = emptyCells(game)[0];
+        int good = puzzle.solution[cell / 9][cell % 9];
+        game.set(cell / 9, cell % 9, good);
+        journal.record(cell, good, MoveJournal.PLACED, 10, 20000);
+        assertFalse(journal.canRedo());
+        assertEquals(-1, journal.redo(game, 20000));
+        assertArrayEquals(game.getGrid(), journal.replay().getGrid());
+    }
+
+    @Test
+    public void undoTakesBackThePoints() {
+        Puzzle puzzle = new SudokuGenerator().generate(13, 45);
+        GameState game = new GameState(puzzle.grid, puzzle.solution);
+        MoveJournal journal = new MoveJournal(GameSnapshot.of(game, 0, 0, false, 0, Difficulty.NORMAL));
+        int cell = emptyCells(game)[0];
+        int good = puzzle.solution[cell / 9][cell % 9];
+
+        // Pose, annulation, nouvelle pose du même chiffre : les points ne comptent qu'une fois
+        game.set(cell / 9, cell % 9, good);
+        journal.record(cell, good, MoveJournal.PLACED, 10, 1000);
+        journal.undo(game, 2000);
+        assertEquals(0, journal.getScore());
+        game.set(cell / 9, cell % 9, good);
+        journal.record(cell, good, MoveJournal.PLACED, 10, 3000);
+        assertEquals(10, journal.getScore());
+
+        journal.undo(game, 4000);
+        journal.redo(game, 5000);
+        assertEquals(10, journal.getScore());
+        assertEquals(good, game.get(cell / 9, cell % 9));
+    }
+
+    @Test
+    public void scoreDeltaKeepsItsFullRange() throws Exception {
+        Puzzle puzzle = new SudokuGenerator().generate(14, 45);
+        GameState game = new GameState(puzzle.grid, puzzle.solution);
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            MoveJournal journal = new MoveJournal(GameSnapshot.of(game, 0, 0, false, 0, Difficulty.HARD));
+            journal.attach(file);
+            journal.record(80, 9, MoveJournal.WRONG, MoveJournal.MIN_SCORE_DELTA, 1000);
+            journal.record(0, 0, MoveJournal.HELP, MoveJournal.MAX_SCORE_DELTA, 2000);
+            journal.record(0, 0, MoveJournal.HELP, 300, 3000);
+            assertEquals(MoveJournal.MIN_SCORE_DELTA + MoveJournal.MAX_SCORE_DELTA + 300, journal.getScore());
+            journal.flush();
+            MoveJournal.awaitWrites();
+            assertEquals(journal.getScore(), MoveJournal.read(file).getScore());
+        } finally {
+            file.delete();
+        }
+
+        MoveJournal journal = new MoveJournal(GameSnapshot.of(game, 0, 0, false, 0, Difficulty.HARD));
+        assertRejected(() -> journal.record(0, 0, MoveJournal.HELP, MoveJournal.MAX_SCORE_DELTA + 1, 0));
+        assertRejected(() -> journal.record(0, 0, MoveJournal.HELP, MoveJournal.MIN_SCORE_DELTA - 1, 0));
+        assertRejected(() -> journal.record(81, 1, MoveJournal.PLACED, 10, 0));
+        assertRejected(() -> journal.record(0, 10, MoveJournal.PLACED, 10, 0));
+        assertRejected(() -> journal.record(0, 1, MoveJournal.UNDO, 10, 0));
+        assertEquals(0, journal.size());
+    }
+
+    private static void assertRejected(Runnable call) {
+        try {
+            call.run();
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError("argument accepté");
+    }
+
+    @Test
+    public void journalSurvivesTornWrite() throws Exception {
+        Puzzle puzzle = new SudokuGenerator().generate(12, 45);
+        GameState game = new GameState(puzzle.grid, puzzle.solution);
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            MoveJournal journal = new MoveJournal(GameSnapshot.of(game, 0, 0, false, 0, Difficulty.EASY));
+            journal.attach(file);
+            int[] cells = emptyCells(game);
+            for (int k = 0; k < MoveJournal.BATCH + 3; k++) {
+                int cell = cells[k];
+                int good = puzzle.solution[cell / 9][cell % 9];
+                game.set(cell / 9, cell % 9, good);
+                journal.record(cell, good, MoveJournal.PLACED, 10, k * 1000L);
+            }
+            journal.flush();
+            MoveJournal.awaitWrites();
+
+            MoveJournal back = MoveJournal.read(file);
+            assertEquals(journal.size(), back.size());
+            assertArrayEquals(game.getGrid(), back.replay().getGrid());
+            assertEquals(journal.getScore(), back.getScore());
+
+            // Crash au milieu d'un enregistrement : on garde tout ce qui précède
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(raf.length() - 3);
+            }
+            back = MoveJournal.read(file);
+            assertEquals(journal.size() - 1, back.size());
+            assertTrue(back.canUndo());
+        } finally {
+            file.delete();
+        }
+    }
+}
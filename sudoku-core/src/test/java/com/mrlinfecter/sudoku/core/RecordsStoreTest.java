@@ -0,0 +1,137 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RecordsStoreTest {
+
+    @Test
+    public void statsFollowEachGame() {
+        RecordsStore store = new RecordsStore();
+        assertTrue(store.add(Difficulty.NORMAL, 1500, 600, false, 2));
+        assertEquals(1500, store.stats(Difficulty.NORMAL).getMedianScore());
+        assertFalse(store.add(Difficulty.NORMAL, 900, 500, true, 0));
+        assertEquals(1200, store.stats(Difficulty.NORMAL).getMedianScore());
+        assertTrue(store.add(Difficulty.NORMAL, 1500, 400, false, 1)); // même score, plus rapide
+        store.add(Difficulty.NORMAL, 2000, 450, false, 0);
+
+        RecordsStore.Stats stats = store.stats(Difficulty.NORMAL);
+        assertEquals(4, stats.getGames());
+        assertEquals(2000, stats.getBestScore());
+        assertEquals(450, stats.getBestTime());
+        assertEquals(1500, stats.getMedianScore());
+        assertEquals(400, stats.getFastest());
+        assertEquals(2, stats.getStreak());
+        assertEquals(2, stats.getBestStreak());
+        assertEquals(0, store.stats(Difficulty.HARD).getGames());
+        assertEquals(4, store.history(Difficulty.NORMAL).size());
+    }
+
+    @Test
+    public void historySurvivesRestartAndTornWrite() throws Exception {
+        File file = File.createTempFile("records", ".bin");
+        file.delete();
+        try {
+            RecordsStore store = new RecordsStore();
+            assertFalse(store.attach(file));
+            store.importBest(Difficulty.EASY, 2500, 300);
+            store.add(Difficulty.EASY, 1800, 420, false, 3);
+            store.add(Difficulty.HARD, 2100, 900, true, 5);
+            store.awaitWrites();
+
+            // Crash pendant l'écriture d'une partie
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(raf.length() + 7);
+            }
+
+            RecordsStore back = new RecordsStore();
+            assertTrue(back.attach(file));
+            assertEquals(2500, back.stats(Difficulty.EASY).getBestScore());
+            assertEquals(1, back.stats(Difficulty.EASY).getGames()); // l'ancien record ne compte pas comme partie
+            assertEquals(1800, back.stats(Difficulty.EASY).getMedianScore());
+            assertEquals(5, back.history(Difficulty.HARD).get(0).mistakes);
+            assertTrue(back.history(Difficulty.HARD).get(0).help);
+
+            back.add(Difficulty.HARD, 2200, 800, false, 0);
+            back.awaitWrites();
+            RecordsStore again = new RecordsStore();
+            again.attach(file);
+            assertEquals(2, again.stats(Difficulty.HARD).getGames());
+            assertEquals(2200, again.stats(Difficulty.HARD).getBestScore());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void badHeaderIsSetAside() throws Exception {
+        File file = File.createTempFile("records", ".bin");
+        File bad = new File(file.getPath() + ".bad");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(new byte[]{'n', 'o', 'p', 'e', 0, 9, 0, 20, 1, 2, 3});
+            }
+            RecordsStore store = new RecordsStore();
+            assertTrue(store.attach(file));
+            assertTrue(bad.isFile());
+            assertFalse(file.exists());
+
+            // La partie suivante repart d'un fichier neuf, relisible
+            store.add(Difficulty.NORMAL, 1700, 500, false, 0);
+            store.awaitWrites();
+            RecordsStore back = new RecordsStore();
+            assertTrue(back.attach(file));
+            assertEquals(1, back.stats(Difficulty.NORMAL).getGames());
+            assertEquals(1700, back.stats(Difficulty.NORMAL).getBestScore());
+            assertTrue(bad.isFile());
+        } finally {
+            file.delete();
+            bad.delete();
+        }
+    }
+
+    @Test
+    public void whenWrittenRunsOnceTheRecordsAreOnDisk() throws Exception {
+        File file = File.createTempFile("records", ".bin");
+        file.delete();
+        try {
+            RecordsStore store = new RecordsStore();
+            assertFalse(store.attach(file));
+            store.importBest(Difficulty.HARD, 3100, 700);
+            long[] length = new long[1];
+            CountDownLatch done = new CountDownLatch(1);
+            store.whenWritten(() -> {
+                length[0] = file.length();
+                done.countDown();
+            });
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(8 + RecordsStore.RECORD_SIZE, length[0]);
+
+            // Écriture impossible : l'action n'est jamais lancée
+            File blocked = new File(file.getPath() + ".dir");
+            assertTrue(blocked.mkdir());
+            try {
+                RecordsStore failing = new RecordsStore();
+                failing.attach(blocked);
+                failing.add(Difficulty.EASY, 1000, 300, false, 0);
+                boolean[] ran = new boolean[1];
+                failing.whenWritten(() -> ran[0] = true);
+                failing.awaitWrites();
+                assertFalse(ran[0]);
+            } finally {
+                blocked.delete();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
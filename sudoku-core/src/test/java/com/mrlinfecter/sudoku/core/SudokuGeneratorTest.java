@@ -0,0 +1,122 @@
+package com.mrlinfecter.sudoku.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class SudokuGeneratorTest {
+
+    private static int holes(int[][] grid) {
+        int n = 0;
+        for (int[] row : grid) {
+            for (int v : row) if (v == 0) n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void solutionIsValid() {
+        SudokuGenerator generator = new SudokuGenerator();
+        for (long seed = 0; seed < 10; seed++) {
+            generator.setSeed(seed);
+            assertTrue(SudokuValidator.isValidSolution(generator.generateSolution()));
+        }
+    }
+
+    @Test
+    public void puzzleHasUniqueSolution() {
+        SudokuGenerator generator = new SudokuGenerator();
+        for (long seed = 0; seed < 10; seed++) {
+            Puzzle puzzle = generator.generate(seed, 50);
+            SudokuBoard board = new SudokuBoard(puzzle.grid);
+            assertEquals(1, new DancingLinksSolver().countSolutions(board, 2));
+            assertEquals(1, new BacktrackingSolver().countSolutions(board, 2));
+            assertTrue(SudokuValidator.isConsistent(puzzle.grid));
+        }
+    }
+
+    @Test
+    public void sameSeedSamePuzzle() {
+        SudokuGenerator a = new SudokuGenerator(new DancingLinksSolver());
+        SudokuGenerator b = new SudokuGenerator(new BacktrackingSolver());
+        b.setCarving(SudokuGenerator.Carving.FULL_COUNT);
+        Puzzle pa = a.generate(42, 55);
+        Puzzle pb = b.generate(42, 55);
+        assertArrayEquals(pa.solution, pb.solution);
+        assertArrayEquals(pa.grid, pb.grid);
+    }
+
+    @Test
+    public void budgetedCarvingReportsWhatItReached() {
+        SudokuGenerator generator = new SudokuGenerator();
+        generator.setSeed(21);
+        int[][] solution = generator.generateSolution();
+        generator.setSeed(99);
+        int[][] unbounded = generator.generatePuzzle(solution, 50);
+        generator.setSeed(99);
+        SudokuGenerator.CarveResult full = generator.generatePuzzle(solution, 50, Long.MAX_VALUE);
+        assertArrayEquals(unbounded, full.grid);
+        assertEquals(50, full.holes);
+        assertTrue(full.reachedTarget());
+        assertTrue(full.elapsedNanos > 0);
+
+        // Budget épuisé : moins de cases vides, mais la grille reste à solution unique
+        generator.setSeed(99);
+        SudokuGenerator.CarveResult cut = generator.generatePuzzle(solution, 50, 0);
+        assertTrue(cut.timedOut);
+        assertEquals(holes(cut.grid), cut.holes);
+        assertTrue(cut.holes < 50);
+        assertEquals(1, new DancingLinksSolver().countSolutions(new SudokuBoard(cut.grid), 2));
+    }
+
+    @Test
+    public void reachesRequestedHolesWhenEasy() {
+        SudokuGenerator generator = new SudokuGenerator();
+        Puzzle puzzle = generator.generate(7, 30);
+        assertEquals(30, holes(puzzle.grid));
+    }
+
+    @Test
+    public void candidatesMatchBoardMasks() {
+        Puzzle puzzle = new SudokuGenerator().generate(3, 45);
+        SudokuBoard board = new SudokuBoard(puzzle.grid);
+        CandidateTable table = new CandidateTable(puzzle.grid);
+        for (int i = 0; i < SudokuBoard.CELLS; i++) {
+            assertEquals(board.candidates(i), table.get(i));
+        }
+    }
+
+    @Test
+    public void candidatesFollowMovesAndErasures() {
+        Puzzle puzzle = new SudokuGenerator().generate(5, 50);
+        GameState game = new GameState(puzzle.grid, puzzle.solution);
+        SplittableRandom rand = new SplittableRandom(11);
+        for (int move = 0; move < 500; move++) {
+            int row = rand.nextInt(9), col = rand.nextInt(9);
+            // Des chiffres faux et des doublons aussi, comme un joueur
+            game.set(row, col, rand.nextInt(10));
+            for (int i = 0; i < SudokuBoard.CELLS; i++) {
+                int value = game.get(i / 9, i % 9);
+                if (value != 0) {
+                    assertEquals(0, game.candidates(i / 9, i % 9));
+                } else {
+                    assertEquals(~usedByPeers(game, i) & SudokuBoard.ALL, game.candidates(i / 9, i % 9));
+                }
+            }
+        }
+    }
+
+    // Chiffres présents dans la ligne, la colonne ou le bloc (doublons compris)
+    private static int usedByPeers(GameState game, int index) {
+        int used = 0;
+        for (int peer : SudokuBoard.PEERS[index]) {
+            int value = game.get(peer / 9, peer % 9);
+            if (value != 0) used |= 1 << (value - 1);
+        }
+        return used;
+    }
+}